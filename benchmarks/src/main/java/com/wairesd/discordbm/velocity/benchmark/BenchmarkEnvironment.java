@@ -0,0 +1,46 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads the plugin settings from a temporary data directory, so benchmarks run without a proxy.
+ * <p>
+ * Unless the given settings have a debug section, every debug log is off. The forwarding secret is
+ * generated by the plugin's own {@code SecretManager} on first load.
+ */
+final class BenchmarkEnvironment {
+    private static Path dataDirectory;
+
+    private BenchmarkEnvironment() {}
+
+    static synchronized Path init() {
+        return init("");
+    }
+
+    /**
+     * Loads the given settings.yml content. Only the first call creates a directory; later calls replace the file.
+     */
+    static synchronized Path init(String settings) {
+        try {
+            if (dataDirectory == null) dataDirectory = Files.createTempDirectory("discordbmv-bench");
+            Files.writeString(dataDirectory.resolve("settings.yml"), settings);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Settings.init(dataDirectory).join();
+        return dataDirectory;
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.discord.PendingRequests;
+import com.wairesd.discordbm.velocity.discord.ResponseCache;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request to a read-only command tracked in {@link PendingRequests}, with identical requests joining
+ * it while it is in flight, until its response arrives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoalescingBenchmark {
+    @Param({"0", "1", "10"})
+    public int followers;
+
+    private PendingRequests pendingRequests;
+    private EmbeddedChannel channel;
+    private SlashCommandInteractionEvent event;
+    private ResponseCache.Key key;
+    private long nextId;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.init();
+        pendingRequests = new PendingRequests(LoggerFactory.getLogger(CoalescingBenchmark.class));
+        channel = new EmbeddedChannel();
+        event = FakeDiscord.slashCommand("balance", "1", null);
+        key = new ResponseCache.Key("balance", "bench", "", Map.of(), 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pendingRequests.shutdown();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public List<SlashCommandInteractionEvent> requestWithFollowers() {
+        UUID requestId = new UUID(0, nextId++);
+        pendingRequests.add(requestId, event, channel, key);
+        for (int i = 0; i < followers; i++) pendingRequests.join(key, event);
+        return pendingRequests.complete(requestId).events();
+    }
+}
@@ -0,0 +1,40 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.util.Color;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the colored messages the admin command sends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColorBenchmark {
+    @Param({
+            "No registered commands.",
+            "&eDiscordBMV is still starting.",
+            "&esurvival: &fin flight 3, latency avg 4.2 ms p50 3.9 ms p99 12.5 ms, queued 0, rejected 0",
+            "&#ff8800Config reloaded &a&lsuccessfully&r."
+    })
+    public String message;
+
+    @Benchmark
+    public Component parse() {
+        return Color.parse(message);
+    }
+}
@@ -0,0 +1,79 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Failed-attempt tracking against a temporary SQLite file. Half of the looked-up IPs are blocked;
+ * failed attempts cycle through more IPs than are tracked in memory, so writes and evictions both run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+    private static final int LOOKUP_IPS = 1024;
+    private static final int ATTEMPT_IPS = 65536;
+
+    private Path dbFile;
+    private DatabaseManager dbManager;
+    private String[] lookupIps;
+    private String[] attemptIps;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkEnvironment.init();
+        dbFile = Files.createTempFile("discordbmv-bench", ".db");
+        dbManager = new DatabaseManager("jdbc:sqlite:" + dbFile);
+        dbManager.start().join();
+        lookupIps = new String[LOOKUP_IPS];
+        for (int i = 0; i < LOOKUP_IPS; i++) {
+            lookupIps[i] = "10.1." + (i >> 8) + "." + (i & 0xff);
+            if ((i & 1) == 0) {
+                for (int attempt = 0; attempt < 10; attempt++) dbManager.incrementFailedAttempt(lookupIps[i]);
+            }
+        }
+        attemptIps = new String[ATTEMPT_IPS];
+        for (int i = 0; i < ATTEMPT_IPS; i++) {
+            attemptIps[i] = "10.2." + (i >> 8) + "." + (i & 0xff);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dbManager.shutdown();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public boolean isBlocked(Cursor cursor) {
+        return dbManager.isBlocked(lookupIps[cursor.next++ & (LOOKUP_IPS - 1)]);
+    }
+
+    @Benchmark
+    public void incrementFailedAttempt(Cursor cursor) {
+        dbManager.incrementFailedAttempt(attemptIps[cursor.next++ & (ATTEMPT_IPS - 1)]);
+    }
+}
@@ -0,0 +1,105 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.model.RegisterMessage;
+import com.wairesd.discordbm.velocity.model.ResponseMessage;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+import org.slf4j.Logger;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simulated Bukkit server. It registers its commands over the JSON text protocol with the forwarding
+ * secret and answers every request, optionally after a fixed delay.
+ */
+final class FakeBackend extends SimpleChannelInboundHandler<String> {
+    private static final Gson gson = new Gson();
+
+    private final String serverName;
+    private final List<CommandDefinition> commands;
+    private final String secret;
+    private final long delayMillis;
+    private final Logger logger;
+
+    FakeBackend(String serverName, List<CommandDefinition> commands, String secret, long delayMillis, Logger logger) {
+        this.serverName = serverName;
+        this.commands = commands;
+        this.secret = secret;
+        this.delayMillis = delayMillis;
+        this.logger = logger;
+    }
+
+    /**
+     * Connects the backend to a proxy listening on the loopback address.
+     */
+    ChannelFuture connect(EventLoopGroup group, int port) {
+        return new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(
+                                new LengthFieldBasedFrameDecoder(65535, 0, 2, 0, 2),
+                                new LengthFieldPrepender(2),
+                                new StringDecoder(StandardCharsets.UTF_8),
+                                new StringEncoder(StandardCharsets.UTF_8),
+                                FakeBackend.this);
+                    }
+                })
+                .connect(InetAddress.getLoopbackAddress(), port);
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+        ctx.writeAndFlush(gson.toJson(new RegisterMessage("register", serverName, "LoadHarness", commands, secret,
+                0, 0, null, false, null)));
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, String msg) {
+        if (!msg.startsWith("{")) {
+            logger.warn("{} received: {}", serverName, msg);
+            return;
+        }
+        JsonObject json = JsonParser.parseString(msg).getAsJsonObject();
+        if (!json.has("type") || !"request".equals(json.get("type").getAsString())) return;
+        String response = gson.toJson(new ResponseMessage("response", json.get("requestId").getAsString(),
+                "Handled " + json.get("command").getAsString() + " on " + serverName));
+        if (delayMillis > 0) {
+            ctx.executor().schedule(() -> ctx.writeAndFlush(response), delayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            ctx.writeAndFlush(response);
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        if (!ctx.executor().isShuttingDown()) logger.warn("{} disconnected", serverName);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        logger.error("{} failed: {}", serverName, cause.getMessage(), cause);
+        ctx.close();
+    }
+}
@@ -0,0 +1,95 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds slash command events backed by dynamic proxies instead of a Discord connection.
+ * <p>
+ * Every JDA call returns another stand-in, so chains such as {@code event.getHook().sendMessageEmbeds(embed).queue()}
+ * run unchanged. When a chain is queued, the event's reply callback learns what was sent.
+ */
+final class FakeDiscord {
+    /**
+     * What a queued call sent back to Discord.
+     */
+    enum Reply {
+        /** A deferred reply; the answer follows through the interaction hook. */
+        DEFERRED,
+        /** A backend response, fresh or cached, shown as an embed. */
+        EMBED,
+        /** A plain message, which the listener only sends for errors, timeouts and busy servers. */
+        MESSAGE
+    }
+
+    private static final JDA JDA_STUB = stub(JDA.class, new Stub(null, null, null, null));
+
+    private FakeDiscord() {}
+
+    /**
+     * Creates a DM slash command without options. onReply may be null.
+     */
+    static SlashCommandInteractionEvent slashCommand(String command, String userId, Consumer<Reply> onReply) {
+        SlashCommandInteraction interaction = stub(SlashCommandInteraction.class, new Stub(command, userId, onReply, null));
+        return new SlashCommandInteractionEvent(JDA_STUB, 0, interaction);
+    }
+
+    private static <T> T stub(Class<T> type, Stub handler) {
+        return type.cast(Proxy.newProxyInstance(FakeDiscord.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    // pending is what the chain sends once queued, or null if it sends nothing.
+    private record Stub(String command, String userId, Consumer<Reply> onReply, Reply pending) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (name) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "FakeDiscord[" + command + "]";
+                };
+            }
+            switch (name) {
+                case "getName":
+                    if (method.getReturnType() == String.class) return command;
+                    break;
+                case "getId":
+                    return userId;
+                case "getGuild":
+                    return null;
+                case "queue":
+                    if (pending != null && onReply != null) onReply.accept(pending);
+                    return null;
+                default:
+                    break;
+            }
+            Reply next = switch (name) {
+                case "deferReply", "deferEdit" -> Reply.DEFERRED;
+                case "replyEmbeds", "sendMessageEmbeds", "setEmbeds", "addEmbeds" -> Reply.EMBED;
+                case "reply", "sendMessage", "setContent" -> Reply.MESSAGE;
+                default -> pending;
+            };
+            return result(method.getReturnType(), new Stub(command, userId, onReply, next));
+        }
+
+        private static Object result(Class<?> type, Stub next) {
+            if (type == void.class) return null;
+            if (type.isPrimitive()) return Array.get(Array.newInstance(type, 1), 0);
+            if (type == List.class || type == Collection.class) return List.of();
+            if (type == Map.class) return Map.of();
+            if (type.isInterface() && !type.getName().startsWith("java.")) return stub(type, next);
+            return null;
+        }
+    }
+}
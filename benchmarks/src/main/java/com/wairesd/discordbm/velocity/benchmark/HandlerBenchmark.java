@@ -0,0 +1,93 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.network.NettyServer;
+import com.wairesd.discordbm.velocity.network.NettyServerHandler;
+import com.wairesd.discordbm.velocity.network.codec.JsonMessageDecoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a backend response frame and dispatches it through {@link NettyServerHandler}, on the inbound
+ * pipeline of a registered JSON client. No interaction is waiting, so dispatch ends at the pending-request lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandlerBenchmark {
+    private static final SocketAddress REMOTE = new InetSocketAddress(InetAddress.getLoopbackAddress(), 40000);
+
+    @Param({"64", "4096"})
+    public int responseLength;
+
+    private EmbeddedChannel channel;
+    private ByteBuf responseFrame;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.init();
+        Logger logger = LoggerFactory.getLogger(HandlerBenchmark.class);
+        DatabaseManager dbManager = new DatabaseManager("jdbc:sqlite::memory:");
+        NettyServer nettyServer = new NettyServer(logger, dbManager);
+        // The handler reads the client's IP, which a plain EmbeddedChannel does not have.
+        channel = new EmbeddedChannel() {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return REMOTE;
+            }
+        };
+        channel.pipeline()
+                .addLast("frameDecoder", new LengthFieldBasedFrameDecoder(65535, 0, 2, 0, 2))
+                .addLast("messageDecoder", new JsonMessageDecoder(logger))
+                .addLast("handler", new NettyServerHandler(nettyServer, logger, null, dbManager));
+        channel.writeInbound(frame("{\"type\":\"register\",\"serverName\":\"bench\",\"pluginName\":\"bench\","
+                + "\"secret\":\"" + Settings.getSecretCode() + "\",\"commands\":[{\"name\":\"balance\","
+                + "\"description\":\"Shows a balance\",\"context\":\"both\",\"options\":[]}]}"));
+        channel.releaseOutbound();
+        responseFrame = frame("{\"type\":\"response\",\"requestId\":\"" + UUID.randomUUID()
+                + "\",\"response\":\"" + "x".repeat(responseLength) + "\"}");
+    }
+
+    @TearDown
+    public void tearDown() {
+        responseFrame.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public void decodeAndDispatchResponse() {
+        channel.writeInbound(responseFrame.retainedDuplicate());
+    }
+
+    private static ByteBuf frame(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return Unpooled.buffer(bytes.length + 2).writeShort(bytes.length).writeBytes(bytes);
+    }
+}
@@ -0,0 +1,70 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.wairesd.discordbm.velocity.model.RegisterMessage;
+import com.wairesd.discordbm.velocity.model.ResponseMessage;
+import com.wairesd.discordbm.velocity.network.codec.JsonMessageReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning an inbound JSON message into its record with the streaming {@link JsonMessageReader}, against the
+ * previous path that parsed a {@link JsonObject} tree and bound it again to the record of its type.
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDispatchBenchmark {
+    private static final Gson gson = new Gson();
+
+    @Param({"response", "register"})
+    public String type;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = switch (type) {
+            case "response" -> "{\"type\":\"response\",\"requestId\":\"" + UUID.randomUUID()
+                    + "\",\"response\":\"" + "x".repeat(256) + "\"}";
+            case "register" -> "{\"type\":\"register\",\"serverName\":\"bench\",\"pluginName\":\"bench\","
+                    + "\"secret\":\"secret\",\"commands\":[{\"name\":\"balance\",\"description\":\"Shows a balance\","
+                    + "\"context\":\"both\",\"options\":[{\"name\":\"player\",\"type\":\"STRING\","
+                    + "\"description\":\"Player\",\"required\":false}]}]}";
+            default -> throw new IllegalArgumentException("Unknown message type " + type);
+        };
+    }
+
+    @Benchmark
+    public Object streaming() throws IOException {
+        return JsonMessageReader.read(json);
+    }
+
+    @Benchmark
+    public Object treeThenBind() {
+        JsonObject tree = gson.fromJson(json, JsonObject.class);
+        return switch (tree.get("type").getAsString()) {
+            case "register" -> gson.fromJson(tree, RegisterMessage.class);
+            case "response" -> gson.fromJson(tree, ResponseMessage.class);
+            default -> null;
+        };
+    }
+}
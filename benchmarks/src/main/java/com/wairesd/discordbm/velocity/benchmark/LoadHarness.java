@@ -0,0 +1,304 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.google.gson.Gson;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.discord.CommandRegistry;
+import com.wairesd.discordbm.velocity.discord.DiscordBotListener;
+import com.wairesd.discordbm.velocity.discord.ResponseHandler;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.network.NettyServer;
+import com.wairesd.discordbm.velocity.util.LatencyHistogram;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how much slash command traffic one proxy handles. Starts {@link NettyServer} on loopback, connects
+ * simulated backends that register with the real forwarding secret, and sends slash commands through
+ * {@link DiscordBotListener} at a fixed rate from a single thread, as JDA's event thread would.
+ * <p>
+ * Every report interval one JSON line goes to stdout with throughput, p50/p99/p999 latency from the
+ * interaction to the response embed, heap use and GC pauses; a final line summarizes the whole run.
+ * Logs go to stderr. Nothing leaves the machine.
+ * <pre>
+ * java -cp target/benchmarks.jar com.wairesd.discordbm.velocity.benchmark.LoadHarness --backends 50 --rate 2000 --duration 3600
+ * </pre>
+ */
+public final class LoadHarness {
+    private static final Logger logger = LoggerFactory.getLogger(LoadHarness.class);
+    private static final Gson gson = new Gson();
+    private static final long TICK_MICROS = 1000;
+    private static final long DRAIN_TIMEOUT_MILLIS = 10_000;
+
+    private final Options options;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    private final AtomicReference<LatencyHistogram> intervalLatency = new AtomicReference<>(new LatencyHistogram());
+    private final GcMonitor gcMonitor = new GcMonitor();
+    private final AtomicBoolean summarized = new AtomicBoolean();
+    private long startNanos;
+    private long lastReportNanos;
+    private long lastReportCompleted;
+
+    private LoadHarness(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * Command-line options. duration 0 runs until the process is stopped.
+     */
+    record Options(int backends, int commands, double rate, long duration, long reportInterval, long backendDelay, int port) {
+        private static final String USAGE = "Options: --backends N (10) --commands N (10) --rate PER_SECOND (1000) "
+                + "--duration SECONDS (60, 0 = until stopped) --report-interval SECONDS (10) "
+                + "--backend-delay MILLIS (0) --port PORT (0 = any free port)";
+
+        static Options parse(String[] args) {
+            int backends = 10, commands = 10, port = 0;
+            double rate = 1000;
+            long duration = 60, reportInterval = 10, backendDelay = 0;
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--backends" -> backends = Integer.parseInt(value);
+                    case "--commands" -> commands = Integer.parseInt(value);
+                    case "--rate" -> rate = Double.parseDouble(value);
+                    case "--duration" -> duration = Long.parseLong(value);
+                    case "--report-interval" -> reportInterval = Long.parseLong(value);
+                    case "--backend-delay" -> backendDelay = Long.parseLong(value);
+                    case "--port" -> port = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (backends < 1 || commands < 1 || rate <= 0 || duration < 0 || reportInterval < 1 || backendDelay < 0) {
+                throw new IllegalArgumentException("Counts, rate and report interval must be positive");
+            }
+            return new Options(backends, commands, rate, duration, reportInterval, backendDelay, port);
+        }
+    }
+
+    // One line of output. Latencies are null when nothing completed in the interval.
+    private record Report(String type, double elapsedSeconds, long sent, long completed, long failed, int pending,
+                          double throughput, Double p50Millis, Double p99Millis, Double p999Millis,
+                          long heapUsedBytes, long heapCommittedBytes, long gcPauses, long gcPauseMillis,
+                          long gcMaxPauseMillis) {}
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadHarness(options).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        int port = options.port() != 0 ? options.port() : BenchmarkEnvironment.freePort();
+        // Every backend registers every command, so requests are spread over them instead of asking for a server.
+        BenchmarkEnvironment.init("""
+                netty:
+                  port: %d
+                routing:
+                  default: round-robin
+                """.formatted(port));
+
+        DatabaseManager dbManager = new DatabaseManager("jdbc:sqlite::memory:");
+        dbManager.start().join();
+        NettyServer nettyServer = new NettyServer(logger, dbManager);
+        CommandRegistry commandRegistry = new CommandRegistry(nettyServer);
+        nettyServer.setCommandRegistry(commandRegistry);
+        DiscordBotListener listener = new DiscordBotListener(null, nettyServer, commandRegistry, logger);
+        ResponseHandler.init(listener, logger);
+        nettyServer.start().join();
+
+        List<CommandDefinition> commands = new ArrayList<>(options.commands());
+        for (int i = 0; i < options.commands(); i++) {
+            commands.add(new CommandDefinition("load" + i, "Load test command " + i, "both", List.of(), null, null));
+        }
+        EventLoopGroup backendGroup = new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
+        for (int i = 0; i < options.backends(); i++) {
+            new FakeBackend("backend" + i, commands, Settings.getSecretCode(), options.backendDelay(), logger)
+                    .connect(backendGroup, port).sync();
+        }
+        awaitRegistrations(nettyServer);
+        logger.info("{} backends registered {} commands on port {}", options.backends(), options.commands(), port);
+
+        gcMonitor.install();
+        ScheduledExecutorService discord = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "LoadHarness-Discord"));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "LoadHarness-Report"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> summarize(listener), "LoadHarness-Summary"));
+        startNanos = lastReportNanos = System.nanoTime();
+        discord.scheduleAtFixedRate(() -> sendDue(listener, commands), 0, TICK_MICROS, TimeUnit.MICROSECONDS);
+        reporter.scheduleAtFixedRate(() -> report(listener), options.reportInterval(), options.reportInterval(), TimeUnit.SECONDS);
+
+        if (options.duration() == 0) {
+            // Runs until the process is stopped; the shutdown hook prints the summary.
+            Thread.currentThread().join();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.duration()));
+        discord.shutdownNow();
+        discord.awaitTermination(5, TimeUnit.SECONDS);
+        long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (listener.getPendingRequests().getPendingCount() > 0 && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        reporter.shutdownNow();
+        summarize(listener);
+
+        backendGroup.shutdownGracefully().syncUninterruptibly();
+        nettyServer.shutdown();
+        nettyServer.awaitTermination(5, TimeUnit.SECONDS);
+        listener.shutdown();
+        dbManager.shutdown();
+    }
+
+    private void awaitRegistrations(NettyServer nettyServer) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (nettyServer.getServers().size() < options.backends()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Only " + nettyServer.getServers().size() + " of "
+                        + options.backends() + " backends registered");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Sends the interactions that are due by now. Falling behind is caught up on the next tick, so a slow
+     * listener shows up as latency rather than as a lower request rate.
+     */
+    private void sendDue(DiscordBotListener listener, List<CommandDefinition> commands) {
+        long due = (long) ((System.nanoTime() - startNanos) / 1e9 * options.rate());
+        for (long next = sent.sum(); next < due; next++) {
+            String command = commands.get((int) (next % commands.size())).name();
+            long start = System.nanoTime();
+            listener.onSlashCommandInteraction(FakeDiscord.slashCommand(command, Long.toString(next % 1000),
+                    reply -> onReply(reply, start)));
+            sent.increment();
+        }
+    }
+
+    private void onReply(FakeDiscord.Reply reply, long start) {
+        switch (reply) {
+            case EMBED -> {
+                long latency = System.nanoTime() - start;
+                totalLatency.recordNanos(latency);
+                intervalLatency.get().recordNanos(latency);
+                completed.increment();
+            }
+            case MESSAGE -> failed.increment();
+            case DEFERRED -> {
+            }
+        }
+    }
+
+    private synchronized void report(DiscordBotListener listener) {
+        long now = System.nanoTime();
+        long done = completed.sum();
+        double seconds = (now - lastReportNanos) / 1e9;
+        LatencyHistogram latency = intervalLatency.getAndSet(new LatencyHistogram());
+        print(snapshot("interval", listener, (done - lastReportCompleted) / seconds, latency, gcMonitor.drainInterval()));
+        lastReportNanos = now;
+        lastReportCompleted = done;
+    }
+
+    private void summarize(DiscordBotListener listener) {
+        if (!summarized.compareAndSet(false, true)) return;
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        print(snapshot("summary", listener, completed.sum() / seconds, totalLatency, gcMonitor.total()));
+    }
+
+    private Report snapshot(String type, DiscordBotListener listener, double throughput, LatencyHistogram latency,
+                            GcMonitor.Pauses pauses) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        return new Report(type, (System.nanoTime() - startNanos) / 1e9, sent.sum(), completed.sum(), failed.sum(),
+                listener.getPendingRequests().getPendingCount(), throughput,
+                percentile(latency, 50), percentile(latency, 99), percentile(latency, 99.9),
+                heap.getUsed(), heap.getCommitted(), pauses.count(), pauses.totalMillis(), pauses.maxMillis());
+    }
+
+    private static Double percentile(LatencyHistogram histogram, double percentile) {
+        double value = histogram.getPercentileMillis(percentile);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static void print(Report report) {
+        System.out.println(gson.toJson(report));
+        System.out.flush();
+    }
+
+    /**
+     * Collects stop-the-world collections from GC notifications. Concurrent cycles are left out, as they do not pause.
+     */
+    private static final class GcMonitor implements NotificationListener {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private final AtomicLong intervalMaxMillis = new AtomicLong();
+        private long reportedCount;
+        private long reportedMillis;
+
+        record Pauses(long count, long totalMillis, long maxMillis) {}
+
+        void install() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (collector instanceof NotificationEmitter emitter) emitter.addNotificationListener(this, null, null);
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+            var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            String name = info.getGcName();
+            if (name.contains("Concurrent") || name.contains("Cycles")) return;
+            long duration = info.getGcInfo().getDuration();
+            count.incrementAndGet();
+            totalMillis.addAndGet(duration);
+            maxMillis.accumulateAndGet(duration, Math::max);
+            intervalMaxMillis.accumulateAndGet(duration, Math::max);
+        }
+
+        /** Pauses since the previous call. Only called from the report thread. */
+        Pauses drainInterval() {
+            long currentCount = count.get();
+            long currentMillis = totalMillis.get();
+            Pauses pauses = new Pauses(currentCount - reportedCount, currentMillis - reportedMillis, intervalMaxMillis.getAndSet(0));
+            reportedCount = currentCount;
+            reportedMillis = currentMillis;
+            return pauses;
+        }
+
+        Pauses total() {
+            return new Pauses(count.get(), totalMillis.get(), maxMillis.get());
+        }
+    }
+}
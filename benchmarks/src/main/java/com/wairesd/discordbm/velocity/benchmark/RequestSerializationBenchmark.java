@@ -0,0 +1,50 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.google.gson.Gson;
+import com.wairesd.discordbm.velocity.model.RequestMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson serialization of the request sent to JSON clients for every forwarded command.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestSerializationBenchmark {
+    private final Gson gson = new Gson();
+
+    @Param({"0", "3"})
+    public int options;
+
+    private RequestMessage request;
+
+    @Setup
+    public void setup() {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < options; i++) values.put("option" + i, "value" + i);
+        request = new RequestMessage("request", "balance", values, UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(request);
+    }
+}
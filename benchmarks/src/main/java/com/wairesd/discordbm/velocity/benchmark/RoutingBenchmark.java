@@ -0,0 +1,82 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.network.NettyServer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command routing with every server registering the same commands: a lookup, and one more server
+ * registering all of them and then disconnecting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+    @Param({"1000"})
+    public int commands;
+
+    @Param({"50"})
+    public int servers;
+
+    private NettyServer nettyServer;
+    private List<CommandDefinition> definitions;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.init();
+        nettyServer = new NettyServer(LoggerFactory.getLogger(RoutingBenchmark.class),
+                new DatabaseManager("jdbc:sqlite::memory:"));
+        definitions = new ArrayList<>(commands);
+        names = new String[commands];
+        for (int i = 0; i < commands; i++) {
+            names[i] = "command" + i;
+            definitions.add(new CommandDefinition(names[i], "Benchmark command " + i, "both", List.of(), null, null));
+        }
+        for (int i = 0; i < servers; i++) {
+            EmbeddedChannel channel = new EmbeddedChannel();
+            nettyServer.setServerName(channel, "server" + i);
+            nettyServer.registerCommands("server" + i, definitions, channel);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public List<NettyServer.ServerInfo> getServersForCommand(Cursor cursor) {
+        String name = names[cursor.next++ % names.length];
+        return nettyServer.getServersForCommand(name);
+    }
+
+    @Benchmark
+    public void registerAndRemoveServer() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        nettyServer.setServerName(channel, "joining");
+        nettyServer.registerCommands("joining", definitions, channel);
+        nettyServer.removeServer(channel);
+    }
+}
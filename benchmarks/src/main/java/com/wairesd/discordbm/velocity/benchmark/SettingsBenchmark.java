@@ -0,0 +1,100 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.yaml.snakeyaml.Yaml;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings one forwarded request and its response read: the debug checks, the queued-writes limit and the
+ * command's timeout. Compares the parsed snapshot with the previous getters, which looked each value up in the
+ * nested YAML maps and cast it on every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("unchecked")
+public class SettingsBenchmark {
+    private static final String SETTINGS = """
+            debug:
+              debug-connections: true
+              debug-client-responses: false
+              debug-errors: true
+            netty:
+              port: 25570
+              max-queued-writes: 1000
+            requests:
+              timeout: 30
+              command-timeouts:
+                top: 60
+            """;
+    private static final String COMMAND = "balance";
+
+    private Map<String, Object> config;
+
+    @Setup
+    public void setup() {
+        BenchmarkEnvironment.init(SETTINGS);
+        config = new Yaml().load(SETTINGS);
+    }
+
+    @Benchmark
+    public void snapshot(Blackhole bh) {
+        bh.consume(Settings.isDebugClientResponses());
+        bh.consume(Settings.getNettyMaxQueuedWrites());
+        bh.consume(Settings.getRequestTimeout(COMMAND));
+        bh.consume(Settings.isDebugClientResponses());
+        bh.consume(Settings.isDebugErrors());
+        bh.consume(Settings.isDebugClientResponses());
+    }
+
+    @Benchmark
+    public void mapLookups(Blackhole bh) {
+        bh.consume(isDebugClientResponses());
+        bh.consume(getNettyMaxQueuedWrites());
+        bh.consume(getRequestTimeout(COMMAND));
+        bh.consume(isDebugClientResponses());
+        bh.consume(isDebugErrors());
+        bh.consume(isDebugClientResponses());
+    }
+
+    private boolean isDebugClientResponses() {
+        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
+        return debug != null && (boolean) debug.getOrDefault("debug-client-responses", false);
+    }
+
+    private boolean isDebugErrors() {
+        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
+        return debug != null && (boolean) debug.getOrDefault("debug-errors", true);
+    }
+
+    private int getNettyMaxQueuedWrites() {
+        Map<String, Object> netty = config != null ? (Map<String, Object>) config.get("netty") : null;
+        return netty != null ? (int) netty.getOrDefault("max-queued-writes", 1000) : 1000;
+    }
+
+    private int getRequestTimeout(String command) {
+        Map<String, Object> requests = config != null ? (Map<String, Object>) config.get("requests") : null;
+        if (requests == null) return 30;
+        Map<String, Object> perCommand = (Map<String, Object>) requests.get("command-timeouts");
+        if (perCommand != null && perCommand.containsKey(command)) {
+            return (int) perCommand.get(command);
+        }
+        return (int) requests.getOrDefault("timeout", 30);
+    }
+}
@@ -0,0 +1,66 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.util.Color;
+import com.wairesd.discordbm.velocity.util.MessageTemplate;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled message templates against the previous path, which replaced each placeholder with
+ * {@link String#replace} and parsed the colors of every message on every send.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateBenchmark {
+    private static final String STATIC_MESSAGE = "&cYou do not have permission to use this command.";
+    private static final String PLACEHOLDER_MESSAGE = "&e{user} &fslapped &e{target} &fwith a large trout!";
+
+    private final MessageTemplate staticTemplate = MessageTemplate.compile(STATIC_MESSAGE);
+    private final MessageTemplate placeholderTemplate = MessageTemplate.compile(PLACEHOLDER_MESSAGE);
+    private final Map<String, String> values = Map.of("user", "Steve", "target", "Alex");
+
+    @Benchmark
+    public Component staticMessageParsedEachTime() {
+        return Color.parse(STATIC_MESSAGE);
+    }
+
+    @Benchmark
+    public Component staticMessageTemplate() {
+        return staticTemplate.toComponent();
+    }
+
+    @Benchmark
+    public String placeholdersReplaced() {
+        return PLACEHOLDER_MESSAGE.replace("{user}", values.get("user")).replace("{target}", values.get("target"));
+    }
+
+    @Benchmark
+    public String placeholdersTemplate() {
+        return placeholderTemplate.format(values);
+    }
+
+    @Benchmark
+    public Component placeholdersReplacedAndParsed() {
+        return Color.parse(placeholdersReplaced());
+    }
+
+    @Benchmark
+    public Component placeholdersTemplateAndParsed() {
+        return placeholderTemplate.toComponent(values);
+    }
+}
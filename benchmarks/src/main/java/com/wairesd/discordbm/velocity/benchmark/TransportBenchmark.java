@@ -0,0 +1,125 @@
+package com.wairesd.discordbm.velocity.benchmark;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.discord.CommandRegistry;
+import com.wairesd.discordbm.velocity.discord.DiscordBotListener;
+import com.wairesd.discordbm.velocity.discord.ResponseHandler;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.network.NettyServer;
+import com.wairesd.discordbm.velocity.network.NettyTransport;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepting a backend and one slash command round trip through {@link NettyServer} on loopback, per server
+ * transport. Backends always use NIO. A native transport that is unavailable on the host falls back to NIO,
+ * as in the plugin, and the setup logs the transport actually used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(TransportBenchmark.class);
+    private static final String COMMAND = "ping";
+
+    @Param({"nio", "epoll", "io_uring"})
+    public String transport;
+
+    private int port;
+    private DatabaseManager dbManager;
+    private NettyServer nettyServer;
+    private DiscordBotListener listener;
+    private EventLoopGroup backendGroup;
+    private long nextBackend;
+
+    @Setup
+    public void setup() throws Exception {
+        port = BenchmarkEnvironment.freePort();
+        BenchmarkEnvironment.init("""
+                netty:
+                  port: %d
+                  transport: %s
+                """.formatted(port, transport));
+        logger.info("Server transport: {}", NettyTransport.resolve(transport, logger));
+
+        dbManager = new DatabaseManager("jdbc:sqlite::memory:");
+        dbManager.start().join();
+        nettyServer = new NettyServer(logger, dbManager);
+        CommandRegistry commandRegistry = new CommandRegistry(nettyServer);
+        nettyServer.setCommandRegistry(commandRegistry);
+        listener = new DiscordBotListener(null, nettyServer, commandRegistry, logger);
+        ResponseHandler.init(listener, logger);
+        nettyServer.start().join();
+
+        backendGroup = new MultiThreadIoEventLoopGroup(NioIoHandler.newFactory());
+        List<CommandDefinition> commands = List.of(new CommandDefinition(COMMAND, "Round trip", "both", List.of(), null, null));
+        new FakeBackend("backend", commands, Settings.getSecretCode(), 0, logger).connect(backendGroup, port).sync();
+        awaitRegistration("backend");
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        backendGroup.shutdownGracefully().syncUninterruptibly();
+        nettyServer.shutdown();
+        nettyServer.awaitTermination(5, TimeUnit.SECONDS);
+        listener.shutdown();
+        dbManager.shutdown();
+    }
+
+    /**
+     * Connects a backend, waits until the server has authenticated and registered it, then disconnects.
+     */
+    @Benchmark
+    public void acceptAndRegister() throws InterruptedException {
+        String serverName = "accept" + nextBackend++;
+        Channel channel = new FakeBackend(serverName, List.of(), Settings.getSecretCode(), 0, logger)
+                .connect(backendGroup, port).sync().channel();
+        awaitRegistration(serverName);
+        channel.close().sync();
+    }
+
+    /**
+     * Sends a slash command to the backend and waits for its response embed.
+     */
+    @Benchmark
+    public FakeDiscord.Reply roundTrip() {
+        CompletableFuture<FakeDiscord.Reply> reply = new CompletableFuture<>();
+        listener.onSlashCommandInteraction(FakeDiscord.slashCommand(COMMAND, "1", r -> {
+            if (r != FakeDiscord.Reply.DEFERRED) reply.complete(r);
+        }));
+        return reply.join();
+    }
+
+    private void awaitRegistration(String serverName) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (nettyServer.getServers().stream().noneMatch(server -> server.serverName().equals(serverName))) {
+            if (System.nanoTime() - deadline > 0) throw new IllegalStateException(serverName + " did not register");
+            Thread.onSpinWait();
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+}
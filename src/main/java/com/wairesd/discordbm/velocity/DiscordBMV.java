@@ -3,16 +3,22 @@ package com.wairesd.discordbm.velocity;
 import com.google.inject.Inject;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
 import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.wairesd.discordbm.velocity.command.AdminCommand;
-import com.wairesd.discordbm.velocity.command.build.CommandManager;
-import com.wairesd.discordbm.velocity.config.ConfigManager;
+import com.wairesd.discordbm.velocity.config.CommandsWatcher;
+import com.wairesd.discordbm.velocity.config.configurators.Commands;
+import com.wairesd.discordbm.velocity.config.configurators.Messages;
 import com.wairesd.discordbm.velocity.config.configurators.Settings;
 import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.discord.CommandRegistry;
+import com.wairesd.discordbm.velocity.discord.CommandSync;
 import com.wairesd.discordbm.velocity.discord.DiscordBotListener;
+import com.wairesd.discordbm.velocity.discord.JdaCommandSyncClient;
 import com.wairesd.discordbm.velocity.discord.ResponseHandler;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
 import com.wairesd.discordbm.velocity.network.NettyServer;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
@@ -22,17 +28,22 @@ import org.slf4j.Logger;
 
 import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Plugin(id = "discordbmv", name = "DiscordBMV", version = "1.0", authors = {"wairesd"})
 public class DiscordBMV {
     private final Logger logger;
     private final Path dataDirectory;
     private final ProxyServer proxy;
-    private JDA jda;
-    private NettyServer nettyServer;
-    private DiscordBotListener discordBotListener;
+    private volatile JDA jda;
+    private volatile NettyServer nettyServer;
+    private volatile DiscordBotListener discordBotListener;
     private DatabaseManager dbManager;
-    private CommandManager commandManager;
+    private CommandSync commandSync;
+    private CommandsWatcher commandsWatcher;
+    private volatile long discordReadyStart;
 
     @Inject
     public DiscordBMV(Logger logger, @DataDirectory Path dataDirectory, ProxyServer proxy) {
@@ -41,31 +52,68 @@ public class DiscordBMV {
         this.proxy = proxy;
     }
 
+    /**
+     * Starts the plugin as a dependency graph: settings first, then messages and commands, the database
+     * and the Netty server in parallel, while the Discord login completes in the background.
+     * Proxy startup is never blocked on any of it.
+     */
     @Subscribe
     public void onProxyInitialization(ProxyInitializeEvent event) {
-        ConfigManager.init(dataDirectory);
-        ConfigManager.ConfigureReload();
-
-        String dbPath = "jdbc:sqlite:" + dataDirectory.resolve("DiscordBMV.db").toString();
-        dbManager = new DatabaseManager(dbPath);
-
-        nettyServer = new NettyServer(logger, dbManager);
-        new Thread(nettyServer::start, "Netty-Server-Thread").start();
-
+        long startupStart = System.nanoTime();
         proxy.getCommandManager().register(
                 proxy.getCommandManager().metaBuilder("discordBMV").build(),
                 new AdminCommand(this)
         );
 
+        CompletableFuture<Void> settings = phase("settings", () -> Settings.init(dataDirectory));
+        settings.thenCompose(v -> {
+            Metrics.configure(logger);
+
+            String dbPath = "jdbc:sqlite:" + dataDirectory.resolve("DiscordBMV.db").toString();
+            dbManager = new DatabaseManager(dbPath);
+            nettyServer = new NettyServer(logger, dbManager);
+            Metrics.gauge("discordbm_connected_servers", "Backends currently registered", () -> nettyServer.getServers().size());
+            commandSync = new CommandSync(nettyServer, logger);
+            nettyServer.setCommandSync(commandSync);
+            CommandRegistry commandRegistry = new CommandRegistry(nettyServer);
+            nettyServer.setCommandRegistry(commandRegistry);
+            Commands.setReloadListener(names -> {
+                commandRegistry.refresh(names);
+                commandSync.requestSync();
+            });
+            discordBotListener = new DiscordBotListener(this, nettyServer, commandRegistry, logger);
+            ResponseHandler.init(discordBotListener, logger);
+            Metrics.gauge("discordbm_pending_requests", "Interactions waiting for a backend",
+                    () -> discordBotListener.getPendingRequests().getPendingCount());
+            Metrics.gauge("discordbm_response_cache_entries", "Backend responses held in the response cache",
+                    () -> discordBotListener.getResponseCache().size());
+
+            return CompletableFuture.allOf(
+                    phase("messages", () -> Messages.init(dataDirectory)),
+                    phase("commands", () -> Commands.init(dataDirectory)).thenRun(this::watchCommands),
+                    phase("database", dbManager::start),
+                    phase("netty", nettyServer::start),
+                    phase("discord login", () -> CompletableFuture.runAsync(this::startDiscord)));
+        }).whenComplete((v, e) -> {
+            if (e != null) {
+                logger.error("Startup failed: {}", e.getMessage(), e);
+            } else {
+                logger.info("Startup finished in {} ms", (System.nanoTime() - startupStart) / 1_000_000);
+            }
+        });
+    }
+
+    /**
+     * Logs in to Discord without waiting for the gateway to become ready; see {@link #onDiscordReady(JDA)}.
+     */
+    private void startDiscord() {
         String token = Settings.getBotToken();
         if (token == null || token.isEmpty()) {
             logger.error("Bot token is not specified in settings.yml!");
             return;
         }
+        discordReadyStart = System.nanoTime();
         try {
-            discordBotListener = new DiscordBotListener(this, nettyServer, logger);
-            ResponseHandler.init(discordBotListener, logger);
-
             Activity activity = createActivity();
             jda = JDABuilder.createDefault(token)
                     .enableIntents(EnumSet.of(
@@ -75,20 +123,56 @@ public class DiscordBMV {
                     ))
                     .setActivity(activity)
                     .addEventListeners(discordBotListener)
-                    .build()
-                    .awaitReady();
-
-            nettyServer.setJda(jda);
-            commandManager = new CommandManager(nettyServer, jda); // Initialize CommandManager
-            commandManager.loadAndRegisterCommands(); // Load and register custom commands
-            logger.info("Discord bot successfully started.");
+                    .build();
         } catch (Exception e) {
             logger.error("Error initializing JDA: {}", e.getMessage(), e);
         }
     }
 
-    public CommandManager getCommandManager() {
-        return commandManager;
+    /**
+     * Called by the listener once JDA is ready. Until then no interactions arrive, and commands registered
+     * by backends are only queued for the first command sync.
+     */
+    public void onDiscordReady(JDA readyJda) {
+        jda = readyJda;
+        nettyServer.setJda(readyJda);
+        commandSync.setClient(new JdaCommandSyncClient(readyJda, logger));
+        logger.info("Discord bot successfully started in {} ms.", (System.nanoTime() - discordReadyStart) / 1_000_000);
+    }
+
+    private void watchCommands() {
+        commandsWatcher = new CommandsWatcher(logger);
+        commandsWatcher.start();
+    }
+
+    // Runs one startup step and logs how long it took to complete.
+    private <T> CompletableFuture<T> phase(String name, Supplier<CompletableFuture<T>> step) {
+        long start = System.nanoTime();
+        return step.get().whenComplete((v, e) -> {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            if (e != null) {
+                logger.error("Startup phase '{}' failed after {} ms", name, millis);
+            } else {
+                logger.info("Startup phase '{}' finished in {} ms", name, millis);
+            }
+        });
+    }
+
+    @Subscribe
+    public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (commandsWatcher != null) commandsWatcher.shutdown();
+        if (commandSync != null) commandSync.shutdown();
+        if (discordBotListener != null) discordBotListener.shutdown();
+        if (nettyServer != null) {
+            nettyServer.shutdown();
+            // Failed authentications on the event loops still write to the database until they have stopped.
+            try {
+                nettyServer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (dbManager != null) dbManager.shutdown();
     }
 
     private Activity createActivity() {
@@ -110,4 +194,8 @@ public class DiscordBMV {
     }
 
     public NettyServer getNettyServer() { return nettyServer; }
+
+    public Logger getLogger() { return logger; }
+
+    public DiscordBotListener getDiscordBotListener() { return discordBotListener; }
 }
\ No newline at end of file
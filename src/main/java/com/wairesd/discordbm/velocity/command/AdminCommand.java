@@ -5,6 +5,8 @@ import com.velocitypowered.api.command.SimpleCommand;
 import com.wairesd.discordbm.velocity.DiscordBMV;
 import com.wairesd.discordbm.velocity.config.ConfigManager;
 import com.wairesd.discordbm.velocity.config.configurators.Messages;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
+import com.wairesd.discordbm.velocity.network.NettyServer;
 import com.wairesd.discordbm.velocity.util.Color;
 
 import java.util.stream.Collectors;
@@ -13,6 +15,8 @@ import java.util.stream.Collectors;
  * Handles the /discordbotmanager command on Velocity for reloading settings.
  */
 public class AdminCommand implements SimpleCommand {
+    private static final String STILL_STARTING = "&eDiscordBMV is still starting.";
+
     private final DiscordBMV plugin;
 
     public AdminCommand(DiscordBMV plugin) {
@@ -29,41 +33,87 @@ public class AdminCommand implements SimpleCommand {
         String[] args = invocation.arguments();
 
         if (args.length == 0) {
-            source.sendMessage(Color.parse(Messages.getMessage("usage-admin-command")));
+            source.sendMessage(Messages.getComponent("usage-admin-command"));
             return;
         }
 
+        NettyServer nettyServer = plugin.getNettyServer();
         switch (args[0].toLowerCase()) {
             case "reload":
                 if (!source.hasPermission("discordbotmanager.reload")) {
-                    source.sendMessage(Color.parse(Messages.getMessage("no-permission")));
+                    source.sendMessage(Messages.getComponent("no-permission"));
                     return;
                 }
-                ConfigManager.ConfigureReload();
-                plugin.updateActivity();
-                plugin.getCommandManager().loadAndRegisterCommands();
-                source.sendMessage(Color.parse(Messages.getMessage("reload-success")));
+                ConfigManager.ConfigureReload().thenRun(() -> {
+                    Metrics.configure(plugin.getLogger());
+                    if (plugin.getNettyServer() != null) plugin.getNettyServer().getConnectionFilter().reload();
+                    plugin.updateActivity();
+                    source.sendMessage(Messages.getComponent("reload-success"));
+                });
                 break;
             case "commands":
                 if (!source.hasPermission("discordbotmanager.commands")) {
-                    source.sendMessage(Color.parse(Messages.getMessage("no-permission")));
+                    source.sendMessage(Messages.getComponent("no-permission"));
+                    return;
+                }
+                if (nettyServer == null) {
+                    source.sendMessage(Color.parse(STILL_STARTING));
                     return;
                 }
-                var commandToServers = plugin.getNettyServer().getCommandToServers();
-                if (commandToServers.isEmpty()) {
+                var routes = nettyServer.getRoutes();
+                if (routes.isEmpty()) {
                     source.sendMessage(Color.parse("No registered commands."));
                     return;
                 }
-                for (var entry : commandToServers.entrySet()) {
+                for (var entry : routes.entrySet()) {
                     String command = entry.getKey();
-                    String serverList = entry.getValue().stream()
+                    String serverList = entry.getValue().servers().stream()
                             .map(server -> server.serverName())
                             .collect(Collectors.joining(", "));
                     source.sendMessage(Color.parse("&e" + command + ": &f" + serverList));
                 }
                 break;
+            case "status":
+                if (!source.hasPermission("discordbotmanager.status")) {
+                    source.sendMessage(Messages.getComponent("no-permission"));
+                    return;
+                }
+                if (nettyServer == null) {
+                    source.sendMessage(Color.parse(STILL_STARTING));
+                    return;
+                }
+                var listener = plugin.getDiscordBotListener();
+                if (listener != null) {
+                    var requests = listener.getPendingRequests();
+                    source.sendMessage(Color.parse("&eRequests: &fpending " + requests.getPendingCount()
+                            + ", completed " + requests.getCompletedCount()
+                            + ", expired " + requests.getExpiredCount()
+                            + ", failed " + requests.getFailedCount()));
+                }
+                var servers = nettyServer.getServers();
+                if (servers.isEmpty()) {
+                    source.sendMessage(Color.parse("No connected servers."));
+                    return;
+                }
+                for (var server : servers) {
+                    var stats = server.stats();
+                    var histogram = stats.getLatencyHistogram();
+                    source.sendMessage(Color.parse("&e" + server.serverName() + ": &fin flight " + stats.getInFlightRequests()
+                            + ", latency avg " + formatMillis(stats.getLatencyEwmaMillis())
+                            + " p50 " + formatMillis(histogram.getPercentileMillis(50))
+                            + " p99 " + formatMillis(histogram.getPercentileMillis(99))
+                            + ", heartbeat " + formatMillis(stats.getHeartbeatRttMillis())
+                            + ", queued " + stats.getQueuedWrites()
+                            + ", rejected " + stats.getRejectedWrites()
+                            + (server.channel().isWritable() ? "" : " &c(not writable)")));
+                }
+                break;
             default:
-                source.sendMessage(Color.parse(Messages.getMessage("usage-admin-command")));
+                source.sendMessage(Messages.getComponent("usage-admin-command"));
         }
     }
+
+    private static String formatMillis(double millis) {
+        return Double.isNaN(millis) ? "-" : String.format("%.1f ms", millis);
+    }
 }
\ No newline at end of file
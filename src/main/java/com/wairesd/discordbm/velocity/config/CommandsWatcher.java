@@ -0,0 +1,89 @@
+package com.wairesd.discordbm.velocity.config;
+
+import com.wairesd.discordbm.velocity.config.configurators.Commands;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads commands.yml when it changes on disk, so edits apply without /discordBMV reload.
+ * <p>
+ * Editors often write a file in several steps, so events are debounced and the file is read once they stop.
+ */
+public class CommandsWatcher {
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final Logger logger;
+    private final Path file;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "DiscordBMV-CommandsReload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private WatchService watchService;
+    private ScheduledFuture<?> pendingReload;
+
+    public CommandsWatcher(Logger logger) {
+        this.logger = logger;
+        this.file = Commands.getCommandsPath();
+    }
+
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.error("Could not watch {} for changes: {}", file, e.getMessage(), e);
+            return;
+        }
+        Thread thread = new Thread(this::watch, "DiscordBMV-CommandsWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean touched = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (name.equals(event.context())) touched = true;
+                }
+                if (touched) scheduleReload();
+                if (!key.reset()) {
+                    logger.warn("Stopped watching {}: the directory is no longer accessible", file);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down.
+        }
+    }
+
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) pendingReload.cancel(false);
+        pendingReload = scheduler.schedule(Commands::reload, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
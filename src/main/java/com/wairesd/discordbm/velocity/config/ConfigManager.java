@@ -1,23 +1,14 @@
-
 package com.wairesd.discordbm.velocity.config;
 
 import com.wairesd.discordbm.velocity.config.configurators.Commands;
 import com.wairesd.discordbm.velocity.config.configurators.Messages;
 import com.wairesd.discordbm.velocity.config.configurators.Settings;
 
-import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 public class ConfigManager {
 
-    public static void init(Path dataDir) {
-        Settings.init(dataDir);
-        Messages.init(dataDir);
-        Commands.init(dataDir);
-    }
-
-    public static void ConfigureReload() {
-        Settings.reload();
-        Messages.reload();
-        Commands.reload();
+    public static CompletableFuture<Void> ConfigureReload() {
+        return CompletableFuture.allOf(Settings.reload(), Messages.reload(), Commands.reload());
     }
 }
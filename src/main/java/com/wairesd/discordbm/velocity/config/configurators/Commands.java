@@ -7,68 +7,184 @@ import com.wairesd.discordbm.velocity.command.build.models.CommandAction;
 import com.wairesd.discordbm.velocity.command.build.models.CommandCondition;
 import com.wairesd.discordbm.velocity.command.build.models.CommandOption;
 import com.wairesd.discordbm.velocity.command.build.models.CustomCommand;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.model.OptionDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class Commands {
     private static final Logger logger = LoggerFactory.getLogger(Commands.class);
+    private static final Object loadLock = new Object();
     private static Path dataDirectory;
-    private static List<CustomCommand> customCommands;
+    private static volatile List<CustomCommand> customCommands;
+    private static volatile Map<String, CustomCommand> customCommandsByName = Map.of();
+    private static volatile List<CommandDefinition> commandDefinitions = List.of();
+    private static volatile Map<String, ParsedCommand> parsedCommands = Map.of();
+    private static volatile Consumer<Set<String>> reloadListener;
+    // Relative cost of checking each condition type; unknown types are checked last.
+    private static final Map<String, Integer> CONDITION_COSTS = Map.of("permission", 0);
 
-    public static void init(Path dataDir) {
+    // A command as last read from commands.yml, kept so an unchanged entry is not parsed again.
+    private record ParsedCommand(Map<String, Object> raw, CustomCommand command, CommandDefinition definition) {}
+
+    public static CompletableFuture<Void> init(Path dataDir) {
         dataDirectory = dataDir;
-        load();
+        return load();
     }
 
-    public static void load() {
-        CompletableFuture.runAsync(() -> {
-            try {
-                Path commandsPath = dataDirectory.resolve("commands.yml");
-                if (!Files.exists(commandsPath)) {
-                    Files.createDirectories(dataDirectory);
-                    try (InputStream in = Commands.class.getClassLoader().getResourceAsStream("commands.yml")) {
-                        if (in != null) {
-                            Files.copy(in, commandsPath);
-                        } else {
-                            logger.error("commands.yml not found in resources!");
-                            return;
-                        }
-                    }
+    /**
+     * Reads commands.yml and applies only what changed since the last load: entries whose YAML is unchanged keep
+     * their parsed command, and the reload listener only runs if a command was added, changed or removed.
+     */
+    public static CompletableFuture<Void> load() {
+        return CompletableFuture.runAsync(() -> {
+            synchronized (loadLock) {
+                try {
+                    loadCommands();
+                } catch (Exception e) {
+                    logger.error("Error loading commands.yml: {}", e.getMessage(), e);
                 }
-                Yaml yaml = new Yaml();
-                Map<String, Object> data = yaml.load(Files.newInputStream(commandsPath));
-                List<Map<String, Object>> commandsList = (List<Map<String, Object>>) data.get("commands");
-                customCommands = new ArrayList<>();
-
-                for (Map<String, Object> cmdData : commandsList) {
-                    CustomCommand cmd = parseCommand(cmdData);
-                    customCommands.add(cmd);
+            }
+        });
+    }
+
+    private static void loadCommands() throws IOException {
+        Path commandsPath = getCommandsPath();
+        if (!Files.exists(commandsPath)) {
+            Files.createDirectories(dataDirectory);
+            try (InputStream in = Commands.class.getClassLoader().getResourceAsStream("commands.yml")) {
+                if (in != null) {
+                    Files.copy(in, commandsPath);
+                } else {
+                    logger.error("commands.yml not found in resources!");
+                    return;
                 }
-                logger.info("commands.yml loaded successfully with {} commands", customCommands.size());
-            } catch (Exception e) {
-                logger.error("Error loading commands.yml: {}", e.getMessage(), e);
             }
+        }
+        Map<String, Object> data;
+        try (InputStream in = Files.newInputStream(commandsPath)) {
+            data = new Yaml().load(in);
+        }
+        List<Object> commandsList = data != null
+                ? (List<Object>) data.getOrDefault("commands", Collections.emptyList())
+                : Collections.emptyList();
+
+        Map<String, ParsedCommand> previous = parsedCommands;
+        Map<String, ParsedCommand> parsed = new LinkedHashMap<>();
+        Set<String> affected = new HashSet<>();
+        int added = 0;
+        int changed = 0;
+        for (Object entry : commandsList) {
+            // Entries are validated before any state is replaced, so a bad one cannot leave a partial reload behind.
+            if (!(entry instanceof Map<?, ?> map) || !(map.get("name") instanceof String name) || name.isBlank()) {
+                logger.warn("Skipping commands.yml entry without a name: {}", entry);
+                continue;
+            }
+            Map<String, Object> cmdData = (Map<String, Object>) map;
+            ParsedCommand old = previous.get(name);
+            if (old != null && old.raw().equals(cmdData)) {
+                parsed.put(name, old);
+                continue;
+            }
+            if (old == null) added++;
+            else changed++;
+            affected.add(name);
+            parsed.put(name, new ParsedCommand(cmdData, parseCommand(cmdData), parseDefinition(cmdData)));
+        }
+        int removed = 0;
+        for (String name : previous.keySet()) {
+            if (!parsed.containsKey(name)) {
+                removed++;
+                affected.add(name);
+            }
+        }
+        boolean firstLoad = customCommands == null;
+
+        List<CustomCommand> commands = new ArrayList<>(parsed.size());
+        Map<String, CustomCommand> byName = new HashMap<>();
+        List<CommandDefinition> definitions = new ArrayList<>(parsed.size());
+        parsed.forEach((name, command) -> {
+            commands.add(command.command());
+            byName.put(name, command.command());
+            definitions.add(command.definition());
         });
+        parsedCommands = parsed;
+        customCommands = commands;
+        customCommandsByName = byName;
+        commandDefinitions = List.copyOf(definitions);
+
+        if (firstLoad) {
+            logger.info("commands.yml loaded successfully with {} commands", commands.size());
+        } else {
+            logger.info("commands.yml reloaded: {} added, {} changed, {} removed", added, changed, removed);
+        }
+        Consumer<Set<String>> listener = reloadListener;
+        if (listener != null && !affected.isEmpty()) listener.accept(Set.copyOf(affected));
     }
 
-    public static void reload() {
-        load();
+    public static CompletableFuture<Void> reload() {
+        return load();
     }
 
     public static List<CustomCommand> getCustomCommands() {
         return customCommands != null ? customCommands : Collections.emptyList();
     }
 
+    /** Returns the custom command with the given name, or null if commands.yml does not define it. */
+    public static CustomCommand getCustomCommand(String name) {
+        return customCommandsByName.get(name);
+    }
+
+    /** Discord-facing definitions of the custom commands, in the shape backends register theirs. */
+    public static List<CommandDefinition> getCommandDefinitions() {
+        return commandDefinitions;
+    }
+
+    public static Path getCommandsPath() {
+        return dataDirectory.resolve("commands.yml");
+    }
+
+    /** Returns the Discord-facing definition of a custom command, or null if commands.yml does not define it. */
+    public static CommandDefinition getCommandDefinition(String name) {
+        ParsedCommand command = parsedCommands.get(name);
+        return command != null ? command.definition() : null;
+    }
+
+    /** Sets a callback that receives the names of the commands a load of commands.yml added, changed or removed. */
+    public static void setReloadListener(Consumer<Set<String>> listener) {
+        reloadListener = listener;
+    }
+
+    private static CommandDefinition parseDefinition(Map<String, Object> cmdData) {
+        List<Map<String, Object>> optionsData = (List<Map<String, Object>>) cmdData.getOrDefault("options", Collections.emptyList());
+        List<OptionDefinition> options = optionsData.stream()
+                .map(data -> new OptionDefinition(
+                        (String) data.get("name"),
+                        (String) data.get("type"),
+                        (String) data.get("description"),
+                        (boolean) data.getOrDefault("required", false)))
+                .toList();
+        return new CommandDefinition((String) cmdData.get("name"), (String) cmdData.get("description"),
+                (String) cmdData.getOrDefault("context", "both"), options, null, null);
+    }
+
     private static CustomCommand parseCommand(Map<String, Object> cmdData) {
         String name = (String) cmdData.get("name");
         String description = (String) cmdData.get("description");
@@ -78,7 +194,11 @@ public class Commands {
         List<Map<String, Object>> actionsData = (List<Map<String, Object>>) cmdData.getOrDefault("actions", Collections.emptyList());
 
         List<CommandOption> options = optionsData.stream().map(Commands::createOption).toList();
-        List<CommandCondition> conditions = conditionsData.stream().map(Commands::createCondition).toList();
+        // Conditions are checked in order, so the cheapest ones run first and reject a command early.
+        List<CommandCondition> conditions = conditionsData.stream()
+                .sorted(Comparator.comparingInt(data -> CONDITION_COSTS.getOrDefault((String) data.get("type"), Integer.MAX_VALUE)))
+                .map(Commands::createCondition)
+                .toList();
         List<CommandAction> actions = actionsData.stream().map(Commands::createAction).toList();
 
         return new CustomCommand(name, description, context, options, conditions, actions);
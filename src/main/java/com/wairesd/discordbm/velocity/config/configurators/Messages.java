@@ -1,5 +1,7 @@
 package com.wairesd.discordbm.velocity.config.configurators;
 
+import com.wairesd.discordbm.velocity.util.MessageTemplate;
+import net.kyori.adventure.text.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
@@ -7,31 +9,36 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages loading and retrieving messages from messages.yml for Velocity.
+ * <p>
+ * Messages are compiled into {@link MessageTemplate}s when loaded; a reload only recompiles the keys whose text changed.
  */
 public class Messages {
     private static final Logger logger = LoggerFactory.getLogger(Messages.class);
     private static Path dataDirectory;
-    private static Map<String, String> messages;
+    private static final MessageTemplate NOT_FOUND = MessageTemplate.compile("Message not found.");
+    private static volatile Map<String, MessageTemplate> templates = Map.of();
 
     /**
      * Initializes the data directory and loads messages asynchronously.
      * @param dataDir the plugin data directory
+     * @return a future completed once the messages are loaded
      */
-    public static void init(Path dataDir) {
+    public static CompletableFuture<Void> init(Path dataDir) {
         dataDirectory = dataDir;
-        load();
+        return load();
     }
 
     /**
      * Loads messages.yml asynchronously, creating it from resources if absent.
      */
-    public static void load() {
-        CompletableFuture.runAsync(() -> {
+    public static CompletableFuture<Void> load() {
+        return CompletableFuture.runAsync(() -> {
             try {
                 Path messagesPath = dataDirectory.resolve("messages.yml");
                 if (!Files.exists(messagesPath)) {
@@ -45,7 +52,11 @@ public class Messages {
                         }
                     }
                 }
-                messages = new Yaml().load(Files.newInputStream(messagesPath));
+                Map<String, Object> messages;
+                try (InputStream in = Files.newInputStream(messagesPath)) {
+                    messages = new Yaml().load(in);
+                }
+                templates = compile(messages != null ? messages : Map.of(), templates);
                 logger.info("messages.yml loaded successfully");
             } catch (Exception e) {
                 logger.error("Error loading messages.yml: {}", e.getMessage(), e);
@@ -54,8 +65,18 @@ public class Messages {
     }
 
     /** Reloads messages by re-loading the file asynchronously. */
-    public static void reload() {
-        load();
+    public static CompletableFuture<Void> reload() {
+        return load();
+    }
+
+    private static Map<String, MessageTemplate> compile(Map<String, Object> messages, Map<String, MessageTemplate> previous) {
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        messages.forEach((key, value) -> {
+            String text = String.valueOf(value);
+            MessageTemplate old = previous.get(key);
+            compiled.put(key, old != null && old.getSource().equals(text) ? old : MessageTemplate.compile(text));
+        });
+        return Map.copyOf(compiled);
     }
 
     /**
@@ -64,6 +85,16 @@ public class Messages {
      * @return the message or fallback
      */
     public static String getMessage(String key) {
-        return messages != null ? messages.getOrDefault(key, "Message not found.") : "Message not found.";
+        return getTemplate(key).getSource();
+    }
+
+    /** Retrieves the compiled message for a key, or a "Message not found." template. */
+    public static MessageTemplate getTemplate(String key) {
+        return templates.getOrDefault(key, NOT_FOUND);
+    }
+
+    /** Retrieves a message as a colored component, parsed once per load for messages without placeholders. */
+    public static Component getComponent(String key) {
+        return getTemplate(key).toComponent();
     }
 }
\ No newline at end of file
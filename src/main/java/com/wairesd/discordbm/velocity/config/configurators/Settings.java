@@ -8,26 +8,33 @@ import org.yaml.snakeyaml.Yaml;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages loading and retrieving settings from settings.yml for Velocity.
+ * <p>
+ * Each load parses the file into a {@link SettingsSnapshot} that replaces the previous one atomically;
+ * the getters below only read fields of the current snapshot.
  */
 public class Settings {
     private static final Logger logger = LoggerFactory.getLogger(Settings.class);
     private static Path dataDirectory;
-    private static Map<String, Object> config;
-    private static SecretManager secretManager;
-
-    public static void init(Path dataDir) {
+    private static volatile SettingsSnapshot settings = SettingsSnapshot.EMPTY;
+    private static volatile SecretManager secretManager;
+
+    /**
+     * Loads settings.yml and then the forwarding secret it points to.
+     * @return a future completed once both are available
+     */
+    public static CompletableFuture<Void> init(Path dataDir) {
         dataDirectory = dataDir;
-        load();
-        secretManager = new SecretManager(dataDirectory, getForwardingSecretFile());
+        return load().thenRun(() -> secretManager = new SecretManager(dataDirectory, getForwardingSecretFile()));
     }
 
-    public static void load() {
-        CompletableFuture.runAsync(() -> {
+    public static CompletableFuture<Void> load() {
+        return CompletableFuture.runAsync(() -> {
             try {
                 Path configPath = dataDirectory.resolve("settings.yml");
                 if (!Files.exists(configPath)) {
@@ -37,8 +44,13 @@ public class Settings {
                         else logger.error("settings.yml not found in resources!");
                     }
                 }
-                config = new Yaml().load(Files.newInputStream(configPath));
-                validateConfig();
+                Map<String, Object> config;
+                try (InputStream in = Files.newInputStream(configPath)) {
+                    config = new Yaml().load(in);
+                }
+                SettingsSnapshot loaded = new SettingsSnapshot(config);
+                validateConfig(config, loaded);
+                settings = loaded;
                 logger.info("Settings loaded from settings.yml");
             } catch (Exception e) {
                 logger.error("Error loading settings.yml: {}", e.getMessage(), e);
@@ -46,79 +58,128 @@ public class Settings {
         });
     }
 
-    public static void reload() {
-        load();
-        secretManager = new SecretManager(dataDirectory, getForwardingSecretFile());
-        Messages.reload();
+    public static CompletableFuture<Void> reload() {
+        return load().thenRun(() -> secretManager = new SecretManager(dataDirectory, getForwardingSecretFile()));
     }
 
-    private static void validateConfig() {
-        if (config == null || !config.containsKey("Discord") || getBotToken() == null) {
+    private static void validateConfig(Map<String, Object> config, SettingsSnapshot loaded) {
+        if (config == null || !config.containsKey("Discord") || loaded.botToken == null) {
             logger.warn("Bot-token missing in settings.yml, using default behavior");
         }
+        if (loaded.nettyPort == 0) {
+            logger.warn("netty.port missing in settings.yml, the server will listen on a random port");
+        }
     }
 
     // Debug options
-    public static boolean isDebugConnections() {
-        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
-        return debug != null && (boolean) debug.getOrDefault("debug-connections", true);
-    }
+    public static boolean isDebugConnections() { return settings.debugConnections; }
 
-    public static boolean isDebugClientResponses() {
-        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
-        return debug != null && (boolean) debug.getOrDefault("debug-client-responses", false);
-    }
+    public static boolean isDebugClientResponses() { return settings.debugClientResponses; }
 
-    public static boolean isDebugPluginConnections() {
-        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
-        return debug != null && (boolean) debug.getOrDefault("debug-plugin-connections", false);
-    }
+    public static boolean isDebugPluginConnections() { return settings.debugPluginConnections; }
 
-    public static boolean isDebugCommandRegistrations() {
-        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
-        return debug != null && (boolean) debug.getOrDefault("debug-command-registrations", false);
-    }
+    public static boolean isDebugCommandRegistrations() { return settings.debugCommandRegistrations; }
 
-    public static boolean isDebugAuthentication() {
-        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
-        return debug != null && (boolean) debug.getOrDefault("debug-authentication", true);
-    }
+    public static boolean isDebugAuthentication() { return settings.debugAuthentication; }
 
-    public static boolean isDebugErrors() {
-        Map<String, Object> debug = config != null ? (Map<String, Object>) config.get("debug") : null;
-        return debug != null && (boolean) debug.getOrDefault("debug-errors", true);
-    }
+    public static boolean isDebugErrors() { return settings.debugErrors; }
 
     // Configuration getters
-    public static String getBotToken() {
-        Map<String, Object> discord = config != null ? (Map<String, Object>) config.get("Discord") : null;
-        return discord != null ? (String) discord.get("Bot-token") : null;
-    }
+    public static String getBotToken() { return settings.botToken; }
 
-    public static int getNettyPort() {
-        Map<String, Object> netty = config != null ? (Map<String, Object>) config.get("netty") : null;
-        return netty != null ? (int) netty.get("port") : 0;
-    }
+    public static int getNettyPort() { return settings.nettyPort; }
 
-    public static String getForwardingSecretFile() {
-        return config != null ? (String) config.getOrDefault("forwarding-secret-file", "secret.complete.code") : "secret.complete.code";
-    }
+    public static String getNettyTransport() { return settings.nettyTransport; }
 
-    public static String getSecretCode() { return secretManager != null ? secretManager.getSecretCode() : null; }
+    public static int getNettyBossThreads() { return settings.nettyBossThreads; }
 
-    public static String getActivityType() {
-        Map<String, Object> discord = config != null ? (Map<String, Object>) config.get("Discord") : null;
-        Map<String, String> activity = discord != null ? (Map<String, String>) discord.get("activity") : null;
-        return activity != null ? activity.getOrDefault("type", "playing") : "playing";
-    }
+    /** Worker event-loop threads; 0 lets Netty pick (twice the available processors). */
+    public static int getNettyWorkerThreads() { return settings.nettyWorkerThreads; }
+
+    public static boolean isNettyTcpNoDelay() { return settings.nettyTcpNoDelay; }
+
+    public static String getNettyAllocator() { return settings.nettyAllocator; }
+
+    public static boolean isNettyPreferDirect() { return settings.nettyPreferDirect; }
+
+    /** Largest frame accepted from clients that negotiated 4-byte length frames. */
+    public static int getNettyMaxFrameLength() { return settings.nettyMaxFrameLength; }
+
+    /** Frames at least this large are compressed on connections that negotiated compression. */
+    public static int getNettyCompressionThreshold() { return settings.nettyCompressionThreshold; }
+
+    /** Largest response, in characters, that may be reassembled from chunks. */
+    public static int getNettyMaxResponseSize() { return settings.nettyMaxResponseSize; }
+
+    /** Largest total, in characters, of the partial responses one connection may have buffered at once. */
+    public static int getNettyMaxBufferedResponseSize() { return settings.nettyMaxBufferedResponseSize; }
+
+    public static int getNettyWriteBufferLowWaterMark() { return settings.nettyWriteBufferLowWaterMark; }
 
-    public static String getActivityMessage() {
-        Map<String, Object> discord = config != null ? (Map<String, Object>) config.get("Discord") : null;
-        Map<String, String> activity = discord != null ? (Map<String, String>) discord.get("activity") : null;
-        return activity != null ? activity.getOrDefault("message", "Velocity Server") : "Velocity Server";
+    public static int getNettyWriteBufferHighWaterMark() { return settings.nettyWriteBufferHighWaterMark; }
+
+    /** Requests allowed in a backend's outbound queue before new ones are rejected. */
+    public static int getNettyMaxQueuedWrites() { return settings.nettyMaxQueuedWrites; }
+
+    /** Seconds of silence from a heartbeat-capable client before it is pinged; 0 disables heartbeats. */
+    public static int getNettyHeartbeatInterval() { return settings.nettyHeartbeatInterval; }
+
+    /** Seconds of silence from a heartbeat-capable client before its connection is closed. */
+    public static int getNettyHeartbeatTimeout() { return settings.nettyHeartbeatTimeout; }
+
+    public static String getForwardingSecretFile() { return settings.forwardingSecretFile; }
+
+    public static String getSecretCode() {
+        SecretManager manager = secretManager;
+        return manager != null ? manager.getSecretCode() : null;
     }
 
-    public static boolean isViewConnectedBannedIp() {
-        return config != null && (boolean) config.getOrDefault("view_connected_banned_ip", false);
+    public static String getActivityType() { return settings.activityType; }
+
+    public static String getActivityMessage() { return settings.activityMessage; }
+
+    /** Seconds to wait for a backend response to a command before answering with an error. */
+    public static int getRequestTimeout(String command) {
+        SettingsSnapshot current = settings;
+        return current.commandTimeouts.getOrDefault(command, current.requestTimeout);
     }
-}
\ No newline at end of file
+
+    /** Seconds a server selection menu stays valid. */
+    public static int getSelectionTimeout() { return settings.selectionTimeout; }
+
+    /** Milliseconds to collect command changes before they are synchronized with Discord in one update. */
+    public static int getCommandSyncDelay() { return settings.commandSyncDelay; }
+
+    /** Routing policy for commands registered by several servers, unless overridden. */
+    public static String getDefaultRouting() { return settings.defaultRouting; }
+
+    /** Routing policy configured for a single command, or null if none. */
+    public static String getRoutingOverride(String command) { return settings.routingOverrides.get(command); }
+
+    /** Whether the built-in metrics registry records anything. */
+    public static boolean isMetricsEnabled() { return settings.metricsEnabled; }
+
+    public static String getMetricsPrometheusHost() { return settings.metricsPrometheusHost; }
+
+    /** Port of the Prometheus scrape endpoint, or 0 to disable it. */
+    public static int getMetricsPrometheusPort() { return settings.metricsPrometheusPort; }
+
+    public static boolean isMetricsJmxEnabled() { return settings.metricsJmx; }
+
+    /** CIDR ranges whose connections are refused at accept time. */
+    public static List<String> getBlockedRanges() { return settings.blockedRanges; }
+
+    /** Unauthenticated connections per second allowed from one IP, or 0 to disable the limit. */
+    public static double getConnectionRate() { return settings.connectionRate; }
+
+    /** Connections an IP may open in a burst before the rate limit applies. */
+    public static int getConnectionBurst() { return settings.connectionBurst; }
+
+    /** Max IPs whose failed attempts and blocks are kept in memory. */
+    public static int getIpBlocksMaxEntries() { return settings.ipBlocksMaxEntries; }
+
+    /** Max backend responses kept for cacheable commands, or 0 to disable the response cache. */
+    public static int getResponseCacheMaxEntries() { return settings.responseCacheMaxEntries; }
+
+    public static boolean isViewConnectedBannedIp() { return settings.viewConnectedBannedIp; }
+}
@@ -0,0 +1,237 @@
+package com.wairesd.discordbm.velocity.config.configurators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable, typed view of settings.yml, parsed and validated once per load.
+ * <p>
+ * {@link Settings} publishes one instance through a volatile field, so readers see either the old or
+ * the new settings as a whole and hot paths read plain final fields instead of walking nested maps.
+ * Values of the wrong type or out of range are reported and replaced by their defaults.
+ */
+final class SettingsSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(SettingsSnapshot.class);
+
+    /** Used until settings.yml has been loaded. */
+    static final SettingsSnapshot EMPTY = new SettingsSnapshot(null);
+
+    final boolean debugConnections;
+    final boolean debugClientResponses;
+    final boolean debugPluginConnections;
+    final boolean debugCommandRegistrations;
+    final boolean debugAuthentication;
+    final boolean debugErrors;
+
+    final String botToken;
+    final String activityType;
+    final String activityMessage;
+
+    final int nettyPort;
+    final String nettyTransport;
+    final int nettyBossThreads;
+    final int nettyWorkerThreads;
+    final boolean nettyTcpNoDelay;
+    final String nettyAllocator;
+    final boolean nettyPreferDirect;
+    final int nettyMaxFrameLength;
+    final int nettyCompressionThreshold;
+    final int nettyMaxResponseSize;
+    final int nettyMaxBufferedResponseSize;
+    final int nettyWriteBufferLowWaterMark;
+    final int nettyWriteBufferHighWaterMark;
+    final int nettyMaxQueuedWrites;
+    final int nettyHeartbeatInterval;
+    final int nettyHeartbeatTimeout;
+
+    final String forwardingSecretFile;
+    final boolean viewConnectedBannedIp;
+
+    final int requestTimeout;
+    final Map<String, Integer> commandTimeouts;
+    final int selectionTimeout;
+    final int commandSyncDelay;
+    final String defaultRouting;
+    final Map<String, String> routingOverrides;
+
+    final boolean metricsEnabled;
+    final String metricsPrometheusHost;
+    final int metricsPrometheusPort;
+    final boolean metricsJmx;
+
+    final List<String> blockedRanges;
+    final double connectionRate;
+    final int connectionBurst;
+    final int ipBlocksMaxEntries;
+    final int responseCacheMaxEntries;
+
+    SettingsSnapshot(Map<String, Object> config) {
+        // A missing debug section turns every debug log off; missing keys inside it use their defaults.
+        Section debug = section(config, "debug");
+        debugConnections = debug.present && debug.bool("debug-connections", true);
+        debugClientResponses = debug.present && debug.bool("debug-client-responses", false);
+        debugPluginConnections = debug.present && debug.bool("debug-plugin-connections", false);
+        debugCommandRegistrations = debug.present && debug.bool("debug-command-registrations", false);
+        debugAuthentication = debug.present && debug.bool("debug-authentication", true);
+        debugErrors = debug.present && debug.bool("debug-errors", true);
+
+        Section discord = section(config, "Discord");
+        botToken = discord.string("Bot-token", null);
+        Section activity = discord.section("activity");
+        activityType = activity.string("type", "playing");
+        activityMessage = activity.string("message", "Velocity Server");
+
+        Section netty = section(config, "netty");
+        nettyPort = netty.integer("port", 0, 0, 65535);
+        nettyTransport = netty.string("transport", "auto");
+        nettyBossThreads = netty.integer("boss-threads", 1, 1, Integer.MAX_VALUE);
+        nettyWorkerThreads = netty.integer("worker-threads", 0, 0, Integer.MAX_VALUE);
+        nettyTcpNoDelay = netty.bool("tcp-nodelay", true);
+        nettyAllocator = netty.string("allocator", "pooled");
+        nettyPreferDirect = netty.bool("prefer-direct", true);
+        nettyMaxFrameLength = netty.integer("max-frame-length", 16 * 1024 * 1024, 1024, Integer.MAX_VALUE);
+        nettyCompressionThreshold = netty.integer("compression-threshold", 1024, 0, Integer.MAX_VALUE);
+        nettyMaxResponseSize = netty.integer("max-response-size", 8 * 1024 * 1024, 1, Integer.MAX_VALUE);
+        nettyMaxBufferedResponseSize = netty.integer("max-buffered-response-size", 16 * 1024 * 1024, 1, Integer.MAX_VALUE);
+        int lowWaterMark = netty.integer("write-buffer-low-water-mark", 32 * 1024, 0, Integer.MAX_VALUE);
+        int highWaterMark = netty.integer("write-buffer-high-water-mark", 64 * 1024, 1, Integer.MAX_VALUE);
+        if (lowWaterMark > highWaterMark) {
+            logger.warn("settings.yml: netty.write-buffer-low-water-mark is above the high water mark, using the defaults");
+            lowWaterMark = 32 * 1024;
+            highWaterMark = 64 * 1024;
+        }
+        nettyWriteBufferLowWaterMark = lowWaterMark;
+        nettyWriteBufferHighWaterMark = highWaterMark;
+        nettyMaxQueuedWrites = netty.integer("max-queued-writes", 1000, 1, Integer.MAX_VALUE);
+        nettyHeartbeatInterval = netty.integer("heartbeat-interval", 5, 0, Integer.MAX_VALUE);
+        nettyHeartbeatTimeout = netty.integer("heartbeat-timeout", 15, 1, Integer.MAX_VALUE);
+
+        Section root = new Section("", config);
+        forwardingSecretFile = root.string("forwarding-secret-file", "secret.complete.code");
+        viewConnectedBannedIp = root.bool("view_connected_banned_ip", false);
+
+        Section requests = section(config, "requests");
+        requestTimeout = requests.integer("timeout", 30, 1, Integer.MAX_VALUE);
+        selectionTimeout = requests.integer("selection-timeout", 60, 1, Integer.MAX_VALUE);
+        Map<String, Integer> timeouts = new HashMap<>();
+        requests.section("command-timeouts").forEach((command, value) -> {
+            if (value instanceof Number number && number.intValue() > 0) {
+                timeouts.put(command, number.intValue());
+            } else {
+                logger.warn("settings.yml: requests.command-timeouts.{} should be a positive number, ignoring it", command);
+            }
+        });
+        commandTimeouts = Map.copyOf(timeouts);
+
+        commandSyncDelay = section(config, "command-sync").integer("delay", 2000, 0, Integer.MAX_VALUE);
+
+        Section routing = section(config, "routing");
+        defaultRouting = routing.string("default", "select");
+        Map<String, String> overrides = new HashMap<>();
+        routing.section("commands").forEach((command, value) -> {
+            if (value instanceof String policy) {
+                overrides.put(command, policy);
+            } else {
+                logger.warn("settings.yml: routing.commands.{} should be a policy name, ignoring it", command);
+            }
+        });
+        routingOverrides = Map.copyOf(overrides);
+
+        Section metrics = section(config, "metrics");
+        metricsEnabled = metrics.bool("enabled", false);
+        metricsPrometheusHost = metrics.string("prometheus-host", "127.0.0.1");
+        metricsPrometheusPort = metrics.integer("prometheus-port", 0, 0, 65535);
+        metricsJmx = metrics.bool("jmx", true);
+
+        Section filter = section(config, "connection-filter");
+        blockedRanges = filter.stringList("blocked-ranges");
+        connectionRate = filter.number("rate", 0, 0);
+        connectionBurst = filter.integer("burst", 10, 1, Integer.MAX_VALUE);
+
+        ipBlocksMaxEntries = section(config, "ip-blocks").integer("max-entries", 10000, 1, Integer.MAX_VALUE);
+        responseCacheMaxEntries = section(config, "response-cache").integer("max-entries", 1000, 0, Integer.MAX_VALUE);
+    }
+
+    private static Section section(Map<String, Object> config, String name) {
+        return new Section("", config).section(name);
+    }
+
+    /**
+     * A map in settings.yml with typed, validated accessors. An absent map behaves as an empty one.
+     */
+    private static final class Section {
+        private final String path;
+        private final Map<String, Object> values;
+        private final boolean present;
+
+        private Section(String path, Map<String, Object> values) {
+            this.path = path;
+            this.values = values != null ? values : Map.of();
+            this.present = values != null;
+        }
+
+        private Section section(String key) {
+            Object value = values.get(key);
+            if (value != null && !(value instanceof Map)) {
+                invalid(key, "a section");
+                value = null;
+            }
+            return new Section(path + key + ".", (Map<String, Object>) value);
+        }
+
+        private void forEach(BiConsumer<String, Object> action) {
+            values.forEach(action);
+        }
+
+        private boolean bool(String key, boolean def) {
+            Object value = values.get(key);
+            if (value == null) return def;
+            if (value instanceof Boolean bool) return bool;
+            invalid(key, "true or false");
+            return def;
+        }
+
+        private String string(String key, String def) {
+            Object value = values.get(key);
+            if (value == null) return def;
+            if (value instanceof String string) return string;
+            invalid(key, "a string");
+            return def;
+        }
+
+        private int integer(String key, int def, int min, int max) {
+            Object value = values.get(key);
+            if (value == null) return def;
+            if (value instanceof Integer integer && integer >= min && integer <= max) return integer;
+            invalid(key, "a whole number between " + min + " and " + max);
+            return def;
+        }
+
+        private double number(String key, double def, double min) {
+            Object value = values.get(key);
+            if (value == null) return def;
+            if (value instanceof Number number && number.doubleValue() >= min) return number.doubleValue();
+            invalid(key, "a number of at least " + min);
+            return def;
+        }
+
+        private List<String> stringList(String key) {
+            Object value = values.get(key);
+            if (value == null) return List.of();
+            if (value instanceof List<?> list && list.stream().allMatch(String.class::isInstance)) {
+                return List.copyOf((List<String>) list);
+            }
+            invalid(key, "a list of strings");
+            return List.of();
+        }
+
+        private void invalid(String key, String expected) {
+            logger.warn("settings.yml: {}{} should be {}, using the default", path, key, expected);
+        }
+    }
+}
@@ -1,33 +1,112 @@
 package com.wairesd.discordbm.velocity.database;
 
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
-import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Manages database operations for IP blocking in Velocity.
+ * Manages IP blocking in Velocity.
+ * <p>
+ * Block state lives in a bounded in-memory cache that answers every lookup; SQLite is read once at
+ * startup and kept up to date by write-behind on a single database thread. Changes are merged per IP
+ * and committed together a few milliseconds after the first one, over one long-lived WAL connection.
  */
 public class DatabaseManager {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long INITIAL_BLOCK_TIME = 5 * 60 * 1000;
+    private static final long MAX_BLOCK_TIME = 60 * 60 * 1000;
+    // Counters of IPs that have not failed for this long are dropped when the cache is swept. IPs whose block time
+    // has escalated are kept, so waiting out a block does not reset it; only a successful authentication does.
+    private static final long ATTEMPT_RETENTION = MAX_BLOCK_TIME;
+    private static final long FLUSH_DELAY_MILLIS = 5;
+    // A failed commit is retried after this delay, doubling up to the maximum while it keeps failing.
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60 * 1000;
+    // Marks an IP whose row is to be deleted.
+    private static final Snapshot DELETED = new Snapshot(0, 0, 0);
+
     private final String dbUrl;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "DiscordBMV-Database");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentHashMap<String, IpState> states = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Snapshot> dirty = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean trimScheduled = new AtomicBoolean();
+    // Only touched on the database thread.
+    private Connection connection;
+    private PreparedStatement upsertStmt;
+    private PreparedStatement deleteStmt;
+    private long retryDelay = RETRY_DELAY_MILLIS;
+
+    /**
+     * Failed attempts and block state of a single IP. Immutable; every change replaces it atomically in the cache.
+     */
+    private record IpState(int attempts, long blockUntil, long currentBlockTime, long lastAttempt) {
+        private boolean isBlocked(long now) {
+            return blockUntil > now;
+        }
+
+        private boolean isEscalated() {
+            return currentBlockTime > INITIAL_BLOCK_TIME;
+        }
+
+        private boolean isStale(long now) {
+            return blockUntil <= now && !isEscalated() && lastAttempt + ATTEMPT_RETENTION <= now;
+        }
+
+        private Snapshot snapshot() {
+            return new Snapshot(attempts, blockUntil, currentBlockTime);
+        }
+    }
+
+    // Values of an IpState at one moment, written to SQLite off the caller's thread.
+    private record Snapshot(int attempts, long blockUntil, long currentBlockTime) {}
 
     public DatabaseManager(String dbUrl) {
         this.dbUrl = dbUrl;
-        initDatabase();
     }
 
-    /** Initializes the SQLite database and creates the ip_blocks table if it doesn't exist. */
+    /**
+     * Opens the database and loads the stored block state on the database thread.
+     * Until the returned future completes, lookups only see blocks made since startup.
+     */
+    public CompletableFuture<Void> start() {
+        return CompletableFuture.runAsync(() -> {
+            initDatabase();
+            loadBlocks();
+            // Changes made before the database was open are still queued.
+            if (!dirty.isEmpty() && flushScheduled.compareAndSet(false, true)) submit(this::flush, 0);
+            executor.scheduleWithFixedDelay(this::sweep, 1, 1, TimeUnit.MINUTES);
+        }, executor);
+    }
+
+    /**
+     * Opens the database connection in WAL mode, creates the ip_blocks table if it doesn't exist
+     * and prepares the write statements.
+     */
     private void initDatabase() {
         try {
             Class.forName("org.sqlite.JDBC");
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 Statement stmt = conn.createStatement()) {
+            connection = DriverManager.getConnection(dbUrl);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+                stmt.execute("PRAGMA synchronous=NORMAL");
                 stmt.execute("CREATE TABLE IF NOT EXISTS ip_blocks (" +
                         "ip TEXT PRIMARY KEY," +
                         "attempts INTEGER DEFAULT 0," +
@@ -35,6 +114,12 @@ public class DatabaseManager {
                         "current_block_time INTEGER DEFAULT 0)");
                 logger.info("ip_blocks table created or already exists");
             }
+            upsertStmt = connection.prepareStatement(
+                    "INSERT INTO ip_blocks (ip, attempts, block_until, current_block_time) VALUES (?, ?, ?, ?) " +
+                            "ON CONFLICT(ip) DO UPDATE SET attempts = excluded.attempts, " +
+                            "block_until = excluded.block_until, current_block_time = excluded.current_block_time");
+            deleteStmt = connection.prepareStatement("DELETE FROM ip_blocks WHERE ip = ?");
+            connection.setAutoCommit(false);
         } catch (ClassNotFoundException e) {
             logger.error("SQLite JDBC driver not found", e);
         } catch (SQLException e) {
@@ -42,79 +127,219 @@ public class DatabaseManager {
         }
     }
 
-    /** Checks if an IP is blocked asynchronously. */
-    public CompletableFuture<Boolean> isBlocked(String ip) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 PreparedStatement stmt = conn.prepareStatement("SELECT block_until FROM ip_blocks WHERE ip = ?")) {
-                stmt.setString(1, ip);
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    Timestamp blockUntil = rs.getTimestamp("block_until");
-                    return blockUntil != null && blockUntil.after(Timestamp.from(Instant.now()));
-                }
-                return false;
-            } catch (SQLException e) {
-                logger.error("Error checking blocked IP {}: {}", ip, e.getMessage());
-                return false;
+    /**
+     * Loads the stored block state into the cache, active blocks first. IPs that already failed since startup
+     * keep their in-memory state, merged with the stored one, and the merged state is written back.
+     */
+    private void loadBlocks() {
+        if (connection == null) return;
+        int maxEntries = Settings.getIpBlocksMaxEntries();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT ip, attempts, block_until, current_block_time FROM ip_blocks " +
+                        "ORDER BY block_until IS NULL, block_until DESC LIMIT ?")) {
+            stmt.setInt(1, maxEntries);
+            ResultSet rs = stmt.executeQuery();
+            long now = System.currentTimeMillis();
+            while (rs.next()) {
+                Timestamp blockUntil = rs.getTimestamp("block_until");
+                long currentBlockTime = rs.getLong("current_block_time");
+                String ip = rs.getString("ip");
+                IpState stored = new IpState(rs.getInt("attempts"), blockUntil != null ? blockUntil.getTime() : 0,
+                        currentBlockTime > 0 ? currentBlockTime : INITIAL_BLOCK_TIME, now);
+                states.merge(ip, stored, (current, loaded) -> {
+                    IpState merged = new IpState(
+                            Math.min(current.attempts() + loaded.attempts(), MAX_ATTEMPTS - 1),
+                            Math.max(current.blockUntil(), loaded.blockUntil()),
+                            Math.max(current.currentBlockTime(), loaded.currentBlockTime()),
+                            current.lastAttempt());
+                    markDirty(ip, merged.snapshot());
+                    return merged;
+                });
             }
-        }, executor);
+            connection.commit();
+            logger.info("Loaded {} IP block entries", states.size());
+        } catch (SQLException e) {
+            logger.error("Error loading IP blocks: {}", e.getMessage());
+        }
     }
 
-    /** Increments failed attempts for an IP and blocks it if necessary. */
-    public CompletableFuture<Void> incrementFailedAttempt(String ip) {
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = DriverManager.getConnection(dbUrl)) {
-                conn.setAutoCommit(false);
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "INSERT INTO ip_blocks (ip, attempts, current_block_time) VALUES (?, 1, ?) " +
-                                "ON CONFLICT(ip) DO UPDATE SET attempts = attempts + 1")) {
-                    stmt.setString(1, ip);
-                    stmt.setLong(2, 5 * 60 * 1000);
-                    stmt.executeUpdate();
-                }
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "SELECT attempts, current_block_time FROM ip_blocks WHERE ip = ?")) {
-                    stmt.setString(1, ip);
-                    ResultSet rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        int attempts = rs.getInt("attempts");
-                        long currentBlockTime = rs.getLong("current_block_time");
-                        if (attempts >= 10) {
-                            long blockUntil = System.currentTimeMillis() + currentBlockTime;
-                            try (PreparedStatement updateStmt = conn.prepareStatement(
-                                    "UPDATE ip_blocks SET block_until = ?, attempts = 0, current_block_time = ? WHERE ip = ?")) {
-                                updateStmt.setTimestamp(1, new Timestamp(blockUntil));
-                                updateStmt.setLong(2, Math.min(currentBlockTime * 2, 60 * 60 * 1000));
-                                updateStmt.setString(3, ip);
-                                updateStmt.executeUpdate();
-                            }
-                        }
-                    }
-                }
-                conn.commit();
-            } catch (SQLException e) {
-                logger.error("Error incrementing failed attempt for IP {}: {}", ip, e.getMessage());
+    /** Checks if an IP is blocked. Answered from memory, safe to call on an event loop. */
+    public boolean isBlocked(String ip) {
+        IpState state = states.get(ip);
+        return state != null && state.isBlocked(System.currentTimeMillis());
+    }
+
+    /**
+     * Increments failed attempts for an IP and blocks it if necessary. Safe to call on an event loop:
+     * trimming the cache when it is full is left to the database thread.
+     */
+    public void incrementFailedAttempt(String ip) {
+        // The change is queued inside compute, so queued writes of one IP keep the order of its updates.
+        states.compute(ip, (k, state) -> {
+            long now = System.currentTimeMillis();
+            int attempts = (state != null ? state.attempts() : 0) + 1;
+            long blockUntil = state != null ? state.blockUntil() : 0;
+            long currentBlockTime = state != null ? state.currentBlockTime() : INITIAL_BLOCK_TIME;
+            if (attempts >= MAX_ATTEMPTS) {
+                blockUntil = now + currentBlockTime;
+                attempts = 0;
+                currentBlockTime = Math.min(currentBlockTime * 2, MAX_BLOCK_TIME);
             }
-        }, executor);
+            IpState updated = new IpState(attempts, blockUntil, currentBlockTime, now);
+            markDirty(ip, updated.snapshot());
+            return updated;
+        });
+        if (states.size() > Settings.getIpBlocksMaxEntries() && trimScheduled.compareAndSet(false, true)) {
+            if (!submit(this::makeRoom, 0)) trimScheduled.set(false);
+        }
     }
 
-    /** Resets failed attempts for an IP. */
-    public CompletableFuture<Void> resetAttempts(String ip) {
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = DriverManager.getConnection(dbUrl);
-                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM ip_blocks WHERE ip = ?")) {
-                stmt.setString(1, ip);
-                stmt.executeUpdate();
-            } catch (SQLException e) {
-                logger.error("Error resetting attempts for IP {}: {}", ip, e.getMessage());
+    /**
+     * Resets failed attempts and block escalation for an IP. The stored row is deleted even if the IP is not
+     * cached, as happens once it was evicted or was not loaded at startup.
+     */
+    public void resetAttempts(String ip) {
+        // compute runs the function for an absent IP too, keeping the delete in order with its other updates.
+        states.compute(ip, (k, state) -> {
+            markDirty(ip, DELETED);
+            return null;
+        });
+    }
+
+    /** Queues the latest state of an IP for the next group commit, replacing any queued state. */
+    private void markDirty(String ip, Snapshot snapshot) {
+        dirty.put(ip, snapshot);
+        if (flushScheduled.compareAndSet(false, true)) {
+            if (!submit(this::flush, FLUSH_DELAY_MILLIS)) flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * Runs a task on the database thread after a delay.
+     * @return false if the database has been shut down, in which case the task is dropped
+     */
+    private boolean submit(Runnable task, long delayMillis) {
+        if (executor.isShutdown()) return false;
+        try {
+            executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shut down between the check and the call.
+            return false;
+        }
+    }
+
+    /**
+     * Writes every queued change in a single transaction. Runs on the database thread.
+     * If the commit fails, the changes are queued again, unless newer ones replaced them, and retried with backoff.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        if (dirty.isEmpty() || connection == null) return;
+        long start = Metrics.startTimer();
+        int upserts = 0, deletes = 0;
+        Map<String, Snapshot> batch = new HashMap<>();
+        try {
+            for (Map.Entry<String, Snapshot> entry : dirty.entrySet()) {
+                String ip = entry.getKey();
+                Snapshot snapshot = entry.getValue();
+                // A newer state queued meanwhile stays for the next flush.
+                if (!dirty.remove(ip, snapshot)) continue;
+                batch.put(ip, snapshot);
+                if (snapshot == DELETED) {
+                    deleteStmt.setString(1, ip);
+                    deleteStmt.addBatch();
+                    deletes++;
+                } else {
+                    upsertStmt.setString(1, ip);
+                    upsertStmt.setInt(2, snapshot.attempts());
+                    upsertStmt.setTimestamp(3, snapshot.blockUntil() > 0 ? new Timestamp(snapshot.blockUntil()) : null);
+                    upsertStmt.setLong(4, snapshot.currentBlockTime());
+                    upsertStmt.addBatch();
+                    upserts++;
+                }
             }
-        }, executor);
+            if (upserts > 0) upsertStmt.executeBatch();
+            if (deletes > 0) deleteStmt.executeBatch();
+            connection.commit();
+            retryDelay = RETRY_DELAY_MILLIS;
+        } catch (SQLException e) {
+            logger.error("Error saving IP blocks, retrying in {} ms: {}", retryDelay, e.getMessage());
+            try {
+                upsertStmt.clearBatch();
+                deleteStmt.clearBatch();
+                connection.rollback();
+            } catch (SQLException ignored) {
+            }
+            batch.forEach(dirty::putIfAbsent);
+            if (flushScheduled.compareAndSet(false, true) && !submit(this::flush, retryDelay)) {
+                flushScheduled.set(false);
+            }
+            retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+        } finally {
+            Metrics.DB_WRITES.recordSince(start);
+        }
+    }
+
+    /**
+     * Brings the cache back under its configured size once it has grown past it. Stale entries go first,
+     * then IPs that are counting attempts but not blocked, and only then unblocked IPs whose block time has
+     * escalated. Blocked IPs are never dropped. A dropped IP's row is deleted too, so the database never
+     * holds a counter the cache has forgotten. Runs on the database thread.
+     */
+    private void makeRoom() {
+        trimScheduled.set(false);
+        int maxEntries = Settings.getIpBlocksMaxEntries();
+        if (states.size() <= maxEntries) return;
+        sweep();
+        if (states.size() <= maxEntries) return;
+        int target = maxEntries - maxEntries / 10;
+        evictUnblocked(target, false);
+        if (states.size() > target) evictUnblocked(target, true);
     }
 
-    /** Shuts down the executor service. */
+    private void evictUnblocked(int target, boolean escalated) {
+        long now = System.currentTimeMillis();
+        for (String ip : states.keySet()) {
+            if (states.size() <= target) return;
+            // Only dropped if it still qualifies at the moment of removal.
+            states.computeIfPresent(ip, (k, state) -> {
+                if (state.isBlocked(now) || state.isEscalated() != escalated) return state;
+                markDirty(ip, DELETED);
+                return null;
+            });
+        }
+    }
+
+    /** Drops expired blocks and old attempt counters from memory and from the database. */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (String ip : states.keySet()) {
+            states.computeIfPresent(ip, (k, state) -> {
+                if (!state.isStale(now)) return state;
+                markDirty(ip, DELETED);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Commits pending writes, shuts down the executor service and closes the connection.
+     * Changes made after this call are not written.
+     */
     public void shutdown() {
+        submit(this::flush, 0);
         executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Timed out waiting for pending IP block writes");
+            }
+            if (connection != null) connection.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            logger.error("Error closing database connection: {}", e.getMessage());
+        }
         logger.info("Database executor shutdown");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import com.wairesd.discordbm.velocity.command.build.models.CustomCommand;
+import com.wairesd.discordbm.velocity.config.configurators.Commands;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.network.NettyServer;
+import com.wairesd.discordbm.velocity.network.RoutingTable;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every slash command the bot can handle, whether served by backends or defined in commands.yml, indexed by name.
+ * <p>
+ * Entries are resolved ahead of time, so dispatching an interaction is one lookup. They are refreshed only for the
+ * names affected by a registration, a disconnect or a commands.yml change. A command served by at least one
+ * backend takes precedence over a custom command of the same name.
+ */
+public class CommandRegistry {
+    private final NettyServer nettyServer;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public enum Kind { BACKEND, CUSTOM }
+
+    /**
+     * Where a command may be used, from the context of its definition.
+     */
+    public enum Context {
+        BOTH, SERVER, DM;
+
+        static Context of(String context) {
+            if ("server".equals(context)) return SERVER;
+            if ("dm".equals(context)) return DM;
+            return BOTH;
+        }
+
+        public boolean allows(boolean inGuild) {
+            return this == BOTH || (this == SERVER) == inGuild;
+        }
+    }
+
+    // A resolved command: the route for backend commands, the parsed command for custom ones.
+    public record Entry(Kind kind, Context context, RoutingTable.Route route, CustomCommand customCommand) {}
+
+    public CommandRegistry(NettyServer nettyServer) {
+        this.nettyServer = nettyServer;
+    }
+
+    public Entry get(String command) {
+        return entries.get(command);
+    }
+
+    /**
+     * Re-resolves the given command names against the routing table and commands.yml.
+     */
+    public void refresh(Collection<String> commands) {
+        for (String command : commands) refresh(command);
+    }
+
+    public void refresh(String command) {
+        // Resolving inside compute keeps concurrent refreshes of one name from storing a stale entry.
+        entries.compute(command, (name, old) -> resolve(name));
+    }
+
+    private Entry resolve(String command) {
+        RoutingTable.Route route = nettyServer.getRoute(command);
+        if (route != null && !route.servers().isEmpty()) {
+            return new Entry(Kind.BACKEND, Context.of(route.definition().context()), route, null);
+        }
+        CustomCommand customCommand = Commands.getCustomCommand(command);
+        if (customCommand != null) {
+            CommandDefinition definition = Commands.getCommandDefinition(command);
+            Context context = Context.of(definition != null ? definition.context() : null);
+            return new Entry(Kind.CUSTOM, context, null, customCommand);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,159 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import com.wairesd.discordbm.velocity.config.configurators.Commands;
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.network.NettyServer;
+import com.wairesd.discordbm.velocity.network.RoutingTable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the bot's global Discord commands in line with the commands registered by backends and those
+ * defined in commands.yml.
+ * <p>
+ * Changes only request a sync. The first request opens a debounce window; when it closes, the desired
+ * commands are compared with the ones Discord has. A few differences are applied one command at a time,
+ * so editing one command does not resend all of them; larger ones are replaced in one bulk update.
+ * Syncs run one at a time on their own thread, and a request made during a sync schedules another one.
+ * <p>
+ * A command is only deleted from Discord if this proxy published it and it has since been removed, such as
+ * a custom command taken out of commands.yml. Commands Discord has that no backend registered yet, as after
+ * a proxy restart before the backends reconnect, are left alone. While Discord has such commands, or commands
+ * that are not slash commands, changes are always applied one at a time, as a bulk update would delete them.
+ */
+public class CommandSync {
+    // Above this many differing commands, one bulk update is cheaper than individual requests.
+    private static final int MAX_INCREMENTAL_CHANGES = 5;
+
+    private final NettyServer nettyServer;
+    private final Logger logger;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "DiscordBMV-CommandSync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // Names of the commands this proxy has published since it started. Only touched on the sync thread.
+    private final Set<String> published = new HashSet<>();
+    private volatile CommandSyncClient client;
+
+    public CommandSync(NettyServer nettyServer, Logger logger) {
+        this.nettyServer = nettyServer;
+        this.logger = logger;
+    }
+
+    /**
+     * Sets the Discord client and schedules the first sync. Requests made before are folded into it.
+     */
+    public void setClient(CommandSyncClient client) {
+        this.client = client;
+        requestSync();
+    }
+
+    /**
+     * Schedules a sync at the end of the current debounce window.
+     */
+    public void requestSync() {
+        if (client == null) return;
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::sync, Settings.getCommandSyncDelay(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs a sync on the sync thread and waits for it, without waiting for the debounce window. Used by tests.
+     */
+    void syncNow() throws Exception {
+        executor.submit(this::sync).get();
+    }
+
+    private void sync() {
+        scheduled.set(false);
+        Map<String, CommandDefinition> desired = desiredCommands();
+        try {
+            Map<String, CommandDefinition> current = index(client.retrieveCommands().join());
+            List<CommandDefinition> added = new ArrayList<>();
+            List<CommandDefinition> changed = new ArrayList<>();
+            for (CommandDefinition definition : desired.values()) {
+                CommandDefinition existing = current.get(definition.name());
+                if (existing == null) added.add(definition);
+                else if (!existing.equals(definition)) changed.add(definition);
+            }
+            List<String> removed = current.keySet().stream()
+                    .filter(name -> !desired.containsKey(name) && published.contains(name))
+                    .toList();
+            boolean othersKept = client.hasOtherCommands() || current.keySet().stream()
+                    .anyMatch(name -> !desired.containsKey(name) && !removed.contains(name));
+
+            int differences = added.size() + changed.size() + removed.size();
+            if (differences == 0) {
+                published.addAll(desired.keySet());
+                if (Settings.isDebugCommandRegistrations()) {
+                    logger.info("Discord commands are up to date ({} commands)", desired.size());
+                }
+                return;
+            }
+            // A bulk update replaces every global command, so it is only used when it would not delete any
+            // command this proxy does not manage, such as one no backend registered yet or a context-menu command.
+            if (differences <= MAX_INCREMENTAL_CHANGES || othersKept) {
+                for (CommandDefinition definition : added) client.upsertCommand(definition).join();
+                for (CommandDefinition definition : changed) client.upsertCommand(definition).join();
+                for (String name : removed) client.deleteCommand(name).join();
+            } else {
+                client.updateCommands(new ArrayList<>(desired.values())).join();
+            }
+            published.addAll(desired.keySet());
+            published.removeAll(removed);
+            if (Settings.isDebugCommandRegistrations()) {
+                logger.info("Synchronized {} Discord commands: {} added, {} changed, {} removed",
+                        desired.size(), added.size(), changed.size(), removed.size());
+            }
+        } catch (Exception e) {
+            logger.error("Error synchronizing Discord commands: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Backend commands first, then custom commands whose names no backend uses.
+     */
+    private Map<String, CommandDefinition> desiredCommands() {
+        Map<String, CommandDefinition> desired = new LinkedHashMap<>();
+        for (RoutingTable.Route route : nettyServer.getRoutes().values()) {
+            desired.put(route.definition().name(), normalize(route.definition()));
+        }
+        for (CommandDefinition definition : Commands.getCommandDefinitions()) {
+            desired.putIfAbsent(definition.name(), normalize(definition));
+        }
+        return desired;
+    }
+
+    private static Map<String, CommandDefinition> index(List<CommandDefinition> commands) {
+        Map<String, CommandDefinition> indexed = new LinkedHashMap<>();
+        for (CommandDefinition definition : commands) {
+            indexed.put(definition.name(), normalize(definition));
+        }
+        return indexed;
+    }
+
+    // Reduces a definition to what Discord stores, so that equal commands compare equal.
+    private static CommandDefinition normalize(CommandDefinition cmd) {
+        String context = "server".equals(cmd.context()) ? "server" : "both";
+        return new CommandDefinition(cmd.name(), cmd.description(), context,
+                cmd.options() != null ? List.copyOf(cmd.options()) : List.of(), null, null);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
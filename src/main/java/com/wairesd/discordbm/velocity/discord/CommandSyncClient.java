@@ -0,0 +1,29 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The part of the Discord API that {@link CommandSync} needs, so that it can run against a local stub.
+ */
+public interface CommandSyncClient {
+    /** Retrieves the bot's global commands as they are currently registered with Discord. */
+    CompletableFuture<List<CommandDefinition>> retrieveCommands();
+
+    /**
+     * Whether the last {@link #retrieveCommands()} left out commands it cannot represent, such as context-menu
+     * commands. {@link #updateCommands(List)} would delete them.
+     */
+    boolean hasOtherCommands();
+
+    /** Replaces the bot's global commands with the given list in a single request. */
+    CompletableFuture<Void> updateCommands(List<CommandDefinition> commands);
+
+    /** Creates a global command, or replaces the one with the same name. */
+    CompletableFuture<Void> upsertCommand(CommandDefinition command);
+
+    /** Deletes the global command with the given name, as seen by the last {@link #retrieveCommands()}. */
+    CompletableFuture<Void> deleteCommand(String name);
+}
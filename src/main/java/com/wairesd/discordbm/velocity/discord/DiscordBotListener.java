@@ -3,13 +3,21 @@ package com.wairesd.discordbm.velocity.discord;
 import com.google.gson.Gson;
 import com.wairesd.discordbm.velocity.DiscordBMV;
 import com.wairesd.discordbm.velocity.command.build.CommandExecutor;
+import com.wairesd.discordbm.velocity.command.build.models.CustomCommand;
 import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
 import com.wairesd.discordbm.velocity.model.CommandDefinition;
 import com.wairesd.discordbm.velocity.model.RequestMessage;
 import com.wairesd.discordbm.velocity.network.NettyServer;
+import com.wairesd.discordbm.velocity.network.RoutingTable;
+import com.wairesd.discordbm.velocity.network.ServerRouter;
 import io.netty.channel.Channel;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleAddEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRoleRemoveEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.events.role.GenericRoleEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.components.selections.SelectOption;
 import net.dv8tion.jda.api.interactions.components.selections.StringSelectMenu;
@@ -19,68 +27,129 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // Listens for Discord slash command interactions and forwards them to the Netty server.
 public class DiscordBotListener extends ListenerAdapter {
     private final DiscordBMV plugin;
     private final NettyServer nettyServer;
     private final Gson gson = new Gson();
-    private final ConcurrentHashMap<UUID, SlashCommandInteractionEvent> pendingRequests = new ConcurrentHashMap<>();
-    private final Map<String, SelectionInfo> pendingSelections = new ConcurrentHashMap<>();
+    private final PendingRequests pendingRequests;
     private final Logger logger;
-    private final CommandExecutor commandExecutor;
+    private final CommandRegistry commandRegistry;
+    private final ServerRouter serverRouter = new ServerRouter();
+    private final ResponseCache responseCache = new ResponseCache();
+    private final RoleCache roleCache = new RoleCache();
+    private static final String SERVER_BUSY = "The server is busy right now. Please try again later.";
+    private static final int MAX_QUEUED_CUSTOM_COMMANDS = 1000;
+    // Custom commands run here, so their conditions and actions never hold up the JDA event thread.
+    private final ThreadPoolExecutor customCommandExecutor;
 
-    public DiscordBotListener(DiscordBMV plugin, NettyServer nettyServer, Logger logger) {
+    public DiscordBotListener(DiscordBMV plugin, NettyServer nettyServer, CommandRegistry commandRegistry, Logger logger) {
         this.nettyServer = nettyServer;
+        this.commandRegistry = commandRegistry;
         this.logger = logger;
         this.plugin = plugin;
-        this.commandExecutor = new CommandExecutor();
+        this.pendingRequests = new PendingRequests(logger);
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.customCommandExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_CUSTOM_COMMANDS), r -> {
+                    Thread thread = new Thread(r, "DiscordBMV-CustomCommand-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.customCommandExecutor.allowCoreThreadTimeOut(true);
     }
 
-    public ConcurrentHashMap<UUID, SlashCommandInteractionEvent> getPendingRequests() { return pendingRequests; }
-    public Map<String, SelectionInfo> getPendingSelections() { return pendingSelections; }
+    public PendingRequests getPendingRequests() { return pendingRequests; }
+
+    public ResponseCache getResponseCache() { return responseCache; }
+
+    public RoleCache getRoleCache() { return roleCache; }
+
+    @Override
+    public void onReady(ReadyEvent event) {
+        plugin.onDiscordReady(event.getJDA());
+    }
+
+    @Override
+    public void onGenericRole(GenericRoleEvent event) {
+        roleCache.invalidateGuild(event.getGuild().getId());
+    }
+
+    @Override
+    public void onGuildMemberRoleAdd(GuildMemberRoleAddEvent event) {
+        roleCache.invalidateMember(event.getGuild().getId(), event.getMember().getId());
+    }
+
+    @Override
+    public void onGuildMemberRoleRemove(GuildMemberRoleRemoveEvent event) {
+        roleCache.invalidateMember(event.getGuild().getId(), event.getMember().getId());
+    }
 
     @Override
     public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
-        String command = event.getName();
-        List<NettyServer.ServerInfo> servers = nettyServer.getServersForCommand(command);
-
-        if (servers.isEmpty()) {
-            var customCommand = plugin.getCommandManager().getCommand(command);
-            if (customCommand != null) {
-                event.deferReply().queue(); // Defer reply for async execution
-                commandExecutor.execute(event, customCommand);
-            } else {
-                event.reply("Command unavailable.").setEphemeral(true).queue();
-            }
+        Metrics.SLASH_COMMANDS.inc();
+        CommandRegistry.Entry entry = commandRegistry.get(event.getName());
+        if (entry == null) {
+            event.reply("Command unavailable.").setEphemeral(true).queue();
             return;
         }
-
-        CommandDefinition cmdDef = nettyServer.getCommandDefinitions().get(command);
-        if ("dm".equals(cmdDef.context()) && event.getGuild() != null) {
-            event.reply("This command is only available in direct messages.").setEphemeral(true).queue();
+        if (!entry.context().allows(event.getGuild() != null)) {
+            event.reply(entry.context() == CommandRegistry.Context.DM
+                    ? "This command is only available in direct messages."
+                    : "This command is only available in servers.").setEphemeral(true).queue();
             return;
         }
+        switch (entry.kind()) {
+            case CUSTOM -> executeCustomCommand(event, entry.customCommand());
+            case BACKEND -> forwardToBackend(event, entry.route());
+        }
+    }
 
-        if (servers.size() == 1) {
-            Channel channel = servers.get(0).channel();
+    private void forwardToBackend(SlashCommandInteractionEvent event, RoutingTable.Route route) {
+        String command = event.getName();
+        CommandDefinition cmdDef = route.definition();
+        List<NettyServer.ServerInfo> servers = route.servers();
+        NettyServer.ServerInfo target = servers.size() == 1
+                ? servers.get(0)
+                : serverRouter.choose(cmdDef, event.getUser().getId(), servers);
+        if (target != null) {
+            Channel channel = target.channel();
+            ResponseCache.Key cacheKey = ResponseCache.keyFor(cmdDef, target.serverName(), event);
+            String cached = cacheKey != null ? responseCache.get(cacheKey) : null;
+            if (cached != null) {
+                event.replyEmbeds(ResponseHandler.toEmbed(cached)).queue();
+                return;
+            }
+            if (cacheKey != null && pendingRequests.join(cacheKey, event)) {
+                event.deferReply().queue();
+                return;
+            }
+            if (!nettyServer.isAcceptingRequests(channel)) {
+                event.reply(SERVER_BUSY).setEphemeral(true).queue();
+                return;
+            }
             UUID requestId = UUID.randomUUID();
-            pendingRequests.put(requestId, event);
+            pendingRequests.add(requestId, event, channel, cacheKey);
             event.deferReply().queue();
 
             Map<String, String> options = new HashMap<>();
             event.getOptions().forEach(opt -> options.put(opt.getName(), opt.getAsString()));
 
             RequestMessage request = new RequestMessage("request", command, options, requestId.toString());
-            String message = gson.toJson(request);
             if (Settings.isDebugClientResponses()) {
-                logger.info("Sending request to server: {}", message);
+                logger.info("Sending request to server {}: {}", target.serverName(), gson.toJson(request));
             }
-            nettyServer.sendMessage(channel, message);
+            forwardRequest(channel, request, requestId, event);
         } else {
             String selectMenuId = "select_server_" + UUID.randomUUID().toString();
-            pendingSelections.put(selectMenuId, new SelectionInfo(event, servers));
+            pendingRequests.addSelection(selectMenuId, new SelectionInfo(event, servers));
 
             StringSelectMenu menu = StringSelectMenu.create(selectMenuId)
                     .setPlaceholder("Select a server")
@@ -101,7 +170,7 @@ public class DiscordBotListener extends ListenerAdapter {
     public void onStringSelectInteraction(StringSelectInteractionEvent event) {
         String customId = event.getComponentId();
         if (customId.startsWith("select_server_")) {
-            SelectionInfo selectionInfo = pendingSelections.remove(customId);
+            SelectionInfo selectionInfo = pendingRequests.removeSelection(customId);
             if (selectionInfo == null) {
                 event.reply("Selection timeout expired.").setEphemeral(true).queue();
                 return;
@@ -123,19 +192,79 @@ public class DiscordBotListener extends ListenerAdapter {
                 return;
             }
 
+            RoutingTable.Route route = nettyServer.getRoute(selectionInfo.event.getName());
+            if (route != null) {
+                serverRouter.remember(route.definition(), event.getUser().getId(), chosenServerName);
+            }
+            ResponseCache.Key cacheKey = route != null
+                    ? ResponseCache.keyFor(route.definition(), chosenServerName, selectionInfo.event)
+                    : null;
+            String cached = cacheKey != null ? responseCache.get(cacheKey) : null;
+            if (cached != null) {
+                event.deferEdit().queue();
+                selectionInfo.event.getHook().sendMessageEmbeds(ResponseHandler.toEmbed(cached)).queue();
+                return;
+            }
+            if (cacheKey != null && pendingRequests.join(cacheKey, selectionInfo.event)) {
+                event.deferEdit().queue();
+                return;
+            }
+            if (!nettyServer.isAcceptingRequests(targetServer.channel())) {
+                event.reply(SERVER_BUSY).setEphemeral(true).queue();
+                return;
+            }
             UUID requestId = UUID.randomUUID();
-            pendingRequests.put(requestId, selectionInfo.event);
+            pendingRequests.add(requestId, selectionInfo.event, targetServer.channel(), cacheKey);
             event.deferEdit().queue();
 
             Map<String, String> options = new HashMap<>();
             selectionInfo.event.getOptions().forEach(opt -> options.put(opt.getName(), opt.getAsString()));
 
             RequestMessage request = new RequestMessage("request", selectionInfo.event.getName(), options, requestId.toString());
-            String json = gson.toJson(request);
             if (Settings.isDebugClientResponses()) {
-                logger.info("Sending request to selected server {}: {}", chosenServerName, json);
+                logger.info("Sending request to selected server {}: {}", chosenServerName, gson.toJson(request));
+            }
+            forwardRequest(targetServer.channel(), request, requestId, selectionInfo.event);
+        }
+    }
+
+    /**
+     * Defers the reply and runs a custom command on the custom command pool. When the pool is saturated
+     * the interaction is answered at once rather than waiting behind the backlog. Each task gets its own
+     * CommandExecutor, as executors are not shared between threads.
+     */
+    private void executeCustomCommand(SlashCommandInteractionEvent event, CustomCommand customCommand) {
+        event.deferReply().queue();
+        try {
+            customCommandExecutor.execute(() -> {
+                try {
+                    new CommandExecutor().execute(event, customCommand);
+                } catch (Exception e) {
+                    logger.error("Error executing custom command {}: {}", event.getName(), e.getMessage(), e);
+                    event.getHook().sendMessage("An error occurred while executing the command.").setEphemeral(true).queue();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            event.getHook().sendMessage(SERVER_BUSY).setEphemeral(true).queue();
+        }
+    }
+
+    public void shutdown() {
+        customCommandExecutor.shutdownNow();
+        pendingRequests.shutdown();
+    }
+
+    /**
+     * Sends a request to a backend, failing the interaction at once if the backend cannot take it.
+     */
+    private void forwardRequest(Channel channel, RequestMessage request, UUID requestId, SlashCommandInteractionEvent event) {
+        if (!nettyServer.sendRequest(channel, request)) {
+            PendingRequests.PendingRequest discarded = pendingRequests.discard(requestId);
+            List<SlashCommandInteractionEvent> events = discarded != null ? discarded.events() : List.of(event);
+            events.forEach(waiting -> waiting.getHook().sendMessage(SERVER_BUSY).setEphemeral(true).queue());
+            if (Settings.isDebugErrors()) {
+                logger.warn("Backend for command {} is not writable, request rejected", request.command());
             }
-            nettyServer.sendMessage(targetServer.channel(), json);
         }
     }
 
@@ -0,0 +1,100 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.model.OptionDefinition;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CommandSyncClient} backed by JDA's REST client.
+ */
+public class JdaCommandSyncClient implements CommandSyncClient {
+    private final JDA jda;
+    private final Logger logger;
+    private volatile Map<String, Long> commandIds = Map.of();
+    private volatile boolean otherCommands;
+
+    public JdaCommandSyncClient(JDA jda, Logger logger) {
+        this.jda = jda;
+        this.logger = logger;
+    }
+
+    @Override
+    public CompletableFuture<List<CommandDefinition>> retrieveCommands() {
+        return jda.retrieveCommands().submit()
+                .thenApply(commands -> {
+                    List<Command> slashCommands = commands.stream()
+                            .filter(command -> command.getType() == Command.Type.SLASH)
+                            .toList();
+                    otherCommands = slashCommands.size() < commands.size();
+                    commandIds = slashCommands.stream()
+                            .collect(Collectors.toUnmodifiableMap(Command::getName, Command::getIdLong, (a, b) -> a));
+                    return slashCommands.stream().map(JdaCommandSyncClient::toDefinition).toList();
+                });
+    }
+
+    @Override
+    public boolean hasOtherCommands() {
+        return otherCommands;
+    }
+
+    @Override
+    public CompletableFuture<Void> updateCommands(List<CommandDefinition> commands) {
+        List<CommandData> data = commands.stream().map(this::toCommandData).toList();
+        return jda.updateCommands().addCommands(data).submit().thenApply(registered -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> upsertCommand(CommandDefinition command) {
+        return jda.upsertCommand(toCommandData(command)).submit().thenApply(registered -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCommand(String name) {
+        Long id = commandIds.get(name);
+        if (id == null) return CompletableFuture.completedFuture(null);
+        return jda.deleteCommandById(id).submit().thenApply(deleted -> null);
+    }
+
+    private static CommandDefinition toDefinition(Command command) {
+        List<OptionDefinition> options = command.getOptions().stream()
+                .map(opt -> new OptionDefinition(opt.getName(), opt.getType().name(), opt.getDescription(), opt.isRequired()))
+                .toList();
+        return new CommandDefinition(command.getName(), command.getDescription(),
+                command.isGuildOnly() ? "server" : "both", options, null, null);
+    }
+
+    private CommandData toCommandData(CommandDefinition cmd) {
+        SlashCommandData cmdData = Commands.slash(cmd.name(), cmd.description());
+        for (var opt : cmd.options()) {
+            cmdData.addOption(OptionType.valueOf(opt.type()), opt.name(), opt.description(), opt.required());
+        }
+        switch (cmd.context()) {
+            case "both":
+            case "dm":
+                cmdData.setGuildOnly(false);
+                break;
+            case "server":
+                cmdData.setGuildOnly(true);
+                break;
+            default:
+                if (Settings.isDebugErrors()) {
+                    logger.warn("Unknown context '{}' for command '{}'. Defaulting to 'both'.", cmd.context(), cmd.name());
+                }
+                cmdData.setGuildOnly(false);
+                break;
+        }
+        return cmdData;
+    }
+}
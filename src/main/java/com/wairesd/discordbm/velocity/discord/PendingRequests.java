@@ -0,0 +1,237 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
+import com.wairesd.discordbm.velocity.network.BackendStats;
+import io.netty.channel.Channel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks interactions waiting for a backend response or a server selection.
+ * Entries expire on a hashed timing wheel so abandoned interactions are answered and released.
+ * <p>
+ * Identical requests for a command marked cacheable share one backend round trip: while the first is in flight,
+ * later ones join it as followers and receive the same outcome.
+ */
+public class PendingRequests {
+    private static final String NO_RESPONSE = "The server did not respond in time. Please try again later.";
+    private static final String DISCONNECTED = "The server disconnected before responding. Please try again later.";
+    private static final String SELECTION_EXPIRED = "Server selection timed out.";
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(
+            new DefaultThreadFactory("discordbm-request-timeouts", true), 100, TimeUnit.MILLISECONDS, 512);
+    private final ConcurrentHashMap<UUID, PendingRequest> requests = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PendingSelection> selections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ResponseCache.Key, UUID> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Logger logger;
+
+    public PendingRequests(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Represents an interaction waiting for a backend response.
+     */
+    public static final class PendingRequest {
+        private final SlashCommandInteractionEvent event;
+        private final Channel channel;
+        private final ResponseCache.Key cacheKey;
+        private final long startNanos = System.nanoTime();
+        private volatile Timeout timeout;
+        private final List<SlashCommandInteractionEvent> followers = new ArrayList<>(0);
+        private boolean closed;
+
+        private PendingRequest(SlashCommandInteractionEvent event, Channel channel, ResponseCache.Key cacheKey) {
+            this.event = event;
+            this.channel = channel;
+            this.cacheKey = cacheKey;
+        }
+
+        public SlashCommandInteractionEvent event() { return event; }
+        public Channel channel() { return channel; }
+        /** The key the response is cached under, or null if the command is not cacheable. */
+        public ResponseCache.Key cacheKey() { return cacheKey; }
+        public long startNanos() { return startNanos; }
+
+        /**
+         * Every interaction waiting on this request: its own and those of the followers that joined it.
+         * Complete once the request has been removed from tracking.
+         */
+        public synchronized List<SlashCommandInteractionEvent> events() {
+            List<SlashCommandInteractionEvent> events = new ArrayList<>(followers.size() + 1);
+            events.add(event);
+            events.addAll(followers);
+            return events;
+        }
+
+        private synchronized boolean follow(SlashCommandInteractionEvent follower) {
+            if (closed) return false;
+            followers.add(follower);
+            return true;
+        }
+
+        private synchronized void close() {
+            closed = true;
+        }
+    }
+
+    private static final class PendingSelection {
+        private final DiscordBotListener.SelectionInfo info;
+        private volatile Timeout timeout;
+
+        private PendingSelection(DiscordBotListener.SelectionInfo info) {
+            this.info = info;
+        }
+    }
+
+    /**
+     * Starts tracking a request sent to a backend. It expires after the command's configured timeout.
+     */
+    public void add(UUID requestId, SlashCommandInteractionEvent event, Channel channel) {
+        add(requestId, event, channel, null);
+    }
+
+    /**
+     * Starts tracking a request whose response is stored in the response cache under the given key.
+     */
+    public void add(UUID requestId, SlashCommandInteractionEvent event, Channel channel, ResponseCache.Key cacheKey) {
+        PendingRequest request = new PendingRequest(event, channel, cacheKey);
+        BackendStats.of(channel).requestStarted();
+        requests.put(requestId, request);
+        if (cacheKey != null) inFlight.put(cacheKey, requestId);
+        request.timeout = timer.newTimeout(t -> expire(requestId, request),
+                Settings.getRequestTimeout(event.getName()), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Attaches an interaction to an identical request already in flight, so it is answered with that request's response.
+     * @return false if no such request is waiting, in which case the caller sends its own
+     */
+    public boolean join(ResponseCache.Key key, SlashCommandInteractionEvent event) {
+        UUID leaderId = inFlight.get(key);
+        PendingRequest leader = leaderId != null ? requests.get(leaderId) : null;
+        if (leader == null || !leader.follow(event)) return false;
+        Metrics.REQUESTS_COALESCED.inc();
+        return true;
+    }
+
+    /**
+     * Removes a request that received its response.
+     * @return the request, or null if it is unknown or already expired
+     */
+    public PendingRequest complete(UUID requestId) {
+        PendingRequest request = requests.remove(requestId);
+        if (request == null) return null;
+        release(requestId, request);
+        completed.increment();
+        BackendStats stats = BackendStats.of(request.channel);
+        stats.requestFinished();
+        long latency = System.nanoTime() - request.startNanos;
+        stats.recordLatency(latency);
+        Metrics.RESPONSE_LATENCY.record(latency);
+        return request;
+    }
+
+    /**
+     * Removes a request that was never delivered to its backend, without counting it.
+     */
+    public PendingRequest discard(UUID requestId) {
+        PendingRequest request = requests.remove(requestId);
+        if (request != null) {
+            release(requestId, request);
+            BackendStats.of(request.channel).requestFinished();
+        }
+        return request;
+    }
+
+    /**
+     * Fails every request in flight on a channel, typically because the channel closed.
+     */
+    public void failChannel(Channel channel) {
+        requests.forEach((requestId, request) -> {
+            if (request.channel == channel && requests.remove(requestId, request)) {
+                release(requestId, request);
+                failed.increment();
+                Metrics.REQUESTS_FAILED.inc();
+                BackendStats.of(channel).requestFinished();
+                request.events().forEach(event -> event.getHook().sendMessage(DISCONNECTED).queue());
+            }
+        });
+    }
+
+    private void expire(UUID requestId, PendingRequest request) {
+        if (!requests.remove(requestId, request)) return;
+        release(requestId, request);
+        expired.increment();
+        Metrics.REQUESTS_EXPIRED.inc();
+        BackendStats.of(request.channel).requestFinished();
+        if (Settings.isDebugErrors()) {
+            logger.warn("Request {} for command {} timed out", requestId, request.event.getName());
+        }
+        request.events().forEach(event -> event.getHook().sendMessage(NO_RESPONSE).queue());
+    }
+
+    // Stops a removed request from taking followers and from being found by its key.
+    private void release(UUID requestId, PendingRequest request) {
+        cancel(request.timeout);
+        if (request.cacheKey != null) inFlight.remove(request.cacheKey, requestId);
+        request.close();
+    }
+
+    /**
+     * Starts tracking a server selection menu. It expires after the configured selection timeout.
+     */
+    public void addSelection(String selectMenuId, DiscordBotListener.SelectionInfo info) {
+        PendingSelection selection = new PendingSelection(info);
+        selections.put(selectMenuId, selection);
+        selection.timeout = timer.newTimeout(t -> expireSelection(selectMenuId, selection),
+                Settings.getSelectionTimeout(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Removes a selection once the user picked a server.
+     * @return the selection, or null if it is unknown or already expired
+     */
+    public DiscordBotListener.SelectionInfo removeSelection(String selectMenuId) {
+        PendingSelection selection = selections.remove(selectMenuId);
+        if (selection == null) return null;
+        cancel(selection.timeout);
+        return selection.info;
+    }
+
+    private void expireSelection(String selectMenuId, PendingSelection selection) {
+        if (!selections.remove(selectMenuId, selection)) return;
+        expired.increment();
+        selection.info.event().getHook().editOriginal(SELECTION_EXPIRED).setComponents().queue();
+    }
+
+    private static void cancel(Timeout timeout) {
+        if (timeout != null) timeout.cancel();
+    }
+
+    /**
+     * Stops the timing wheel; requests still pending are dropped without being answered.
+     */
+    public void shutdown() {
+        timer.stop();
+    }
+
+    public int getPendingCount() { return requests.size() + selections.size(); }
+    public long getCompletedCount() { return completed.sum(); }
+    public long getExpiredCount() { return expired.sum(); }
+    public long getFailedCount() { return failed.sum(); }
+}
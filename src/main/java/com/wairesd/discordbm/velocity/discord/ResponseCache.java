@@ -0,0 +1,95 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
+import com.wairesd.discordbm.velocity.model.CacheDefinition;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded LRU cache of backend responses to commands whose definition marks them as cacheable.
+ * <p>
+ * A response is keyed by command, serving backend, options and, depending on the command's scope, the user or
+ * guild that invoked it. Entries expire after the command's TTL and the least recently used entry is evicted
+ * once {@code response-cache.max-entries} is reached. Backends drop entries with an invalidate message.
+ * A TTL of 0 marks a command as read-only without caching it; its keys are then only used to coalesce requests.
+ */
+public class ResponseCache {
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Identifies one cacheable invocation. scope is the user or guild id, or empty for globally shared responses.
+     */
+    public record Key(String command, String server, String scope, Map<String, String> options, int ttlSeconds) {}
+
+    private record Entry(String response, long expiresAt) {}
+
+    /**
+     * Returns the key a command invocation is cached and coalesced under, or null if the command is not marked read-only.
+     */
+    public static Key keyFor(CommandDefinition definition, String server, SlashCommandInteractionEvent event) {
+        CacheDefinition cache = definition.cache();
+        if (cache == null || cache.ttl() < 0) return null;
+        String scope;
+        switch (cache.scope() != null ? cache.scope() : "global") {
+            case "user" -> scope = event.getUser().getId();
+            case "guild" -> scope = event.getGuild() != null ? event.getGuild().getId() : "dm:" + event.getUser().getId();
+            default -> scope = "";
+        }
+        Map<String, String> options = new TreeMap<>();
+        event.getOptions().forEach(opt -> options.put(opt.getName(), opt.getAsString()));
+        return new Key(definition.name(), server, scope, Map.copyOf(options), cache.ttl());
+    }
+
+    /**
+     * Returns the cached response for a key, or null on a miss.
+     */
+    public String get(Key key) {
+        if (key.ttlSeconds() == 0 || Settings.getResponseCacheMaxEntries() == 0) return null;
+        String response;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key);
+                entry = null;
+            }
+            response = entry != null ? entry.response : null;
+        }
+        (response != null ? Metrics.RESPONSE_CACHE_HITS : Metrics.RESPONSE_CACHE_MISSES).inc();
+        return response;
+    }
+
+    public void put(Key key, String response) {
+        int maxEntries = Settings.getResponseCacheMaxEntries();
+        if (key.ttlSeconds() == 0 || maxEntries == 0) return;
+        long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(key.ttlSeconds());
+        synchronized (entries) {
+            entries.put(key, new Entry(response, expiresAt));
+            var eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the cached responses a server gave for a command, or for all its commands if command is null.
+     */
+    public void invalidate(String server, String command) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.server().equals(server) && (command == null || key.command().equals(command)));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
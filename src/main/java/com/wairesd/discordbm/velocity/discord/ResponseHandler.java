@@ -1,7 +1,10 @@
 package com.wairesd.discordbm.velocity.discord;
 
 import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import io.netty.channel.Channel;
 import org.slf4j.Logger;
 
 import java.awt.*;
@@ -22,25 +25,59 @@ public class ResponseHandler {
     public static void handleResponse(String requestIdStr, String response) {
         try {
             UUID requestId = UUID.fromString(requestIdStr);
-            var event = listener.getPendingRequests().remove(requestId);
-            if (event == null) {
+            var request = listener != null ? listener.getPendingRequests().complete(requestId) : null;
+            if (request == null) {
+                Metrics.RESPONSES_UNMATCHED.inc();
                 if (Settings.isDebugErrors()) {
                     logger.warn("Request with ID {} not found.", requestIdStr);
                 }
                 return;
             }
+            Metrics.RESPONSES.inc();
             if (Settings.isDebugClientResponses()) {
                 logger.info("Received response for request {}: {}", requestIdStr, response);
             }
-            var embed = new EmbedBuilder()
-                    .setColor(Color.GREEN)
-                    .setDescription(response)
-                    .build();
-            event.getHook().sendMessageEmbeds(embed).queue();
+            if (request.cacheKey() != null) {
+                listener.getResponseCache().put(request.cacheKey(), response);
+            }
+            MessageEmbed embed = toEmbed(response);
+            for (var event : request.events()) {
+                event.getHook().sendMessageEmbeds(embed).queue();
+            }
         } catch (IllegalArgumentException e) {
             if (Settings.isDebugErrors()) {
                 logger.error("Invalid UUID in response: {}", requestIdStr, e);
             }
         }
     }
+
+    /**
+     * Builds the message a backend response is shown as in Discord.
+     */
+    public static MessageEmbed toEmbed(String response) {
+        return new EmbedBuilder()
+                .setColor(Color.GREEN)
+                .setDescription(response)
+                .build();
+    }
+
+    /**
+     * Drops the cached responses a server asked to invalidate.
+     */
+    public static void handleInvalidate(String serverName, String command) {
+        if (listener == null || serverName == null) return;
+        listener.getResponseCache().invalidate(serverName, command);
+        if (Settings.isDebugClientResponses()) {
+            logger.info("Server {} invalidated cached responses of {}", serverName, command != null ? command : "all commands");
+        }
+    }
+
+    /**
+     * Fails every request still waiting on a channel that has closed.
+     */
+    public static void handleDisconnect(Channel channel) {
+        if (listener != null) {
+            listener.getPendingRequests().failChannel(channel);
+        }
+    }
 }
\ No newline at end of file
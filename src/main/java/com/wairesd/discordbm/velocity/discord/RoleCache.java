@@ -0,0 +1,73 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache of the role ids of guild members, so role checks of custom commands are set lookups.
+ * <p>
+ * Entries of a guild are dropped when one of its roles changes and a member's entry when their roles are updated.
+ * Member updates are only delivered with the GUILD_MEMBERS intent, so entries also expire after {@link #TTL_SECONDS}.
+ */
+public class RoleCache {
+    private static final int MAX_ENTRIES = 10_000;
+    private static final long TTL_SECONDS = 60;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private record Key(String guildId, String memberId) {}
+
+    private record Entry(Set<String> roleIds, long expiresAt) {}
+
+    public Set<String> getRoleIds(Member member) {
+        return getRoleIds(member.getGuild().getId(), member.getId(),
+                () -> member.getRoles().stream().map(Role::getId).collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public boolean hasRole(Member member, String roleId) {
+        return getRoleIds(member).contains(roleId);
+    }
+
+    Set<String> getRoleIds(String guildId, String memberId, Supplier<Set<String>> loader) {
+        Key key = new Key(guildId, memberId);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) return entry.roleIds;
+        }
+        Set<String> roleIds = loader.get();
+        long expiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(TTL_SECONDS);
+        synchronized (entries) {
+            entries.put(key, new Entry(roleIds, expiresAt));
+            var eldest = entries.keySet().iterator();
+            while (entries.size() > MAX_ENTRIES && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return roleIds;
+    }
+
+    public void invalidateGuild(String guildId) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.guildId().equals(guildId));
+        }
+    }
+
+    public void invalidateMember(String guildId, String memberId) {
+        synchronized (entries) {
+            entries.remove(new Key(guildId, memberId));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.wairesd.discordbm.velocity.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a striped {@link LongAdder}. Increments are dropped while metrics are disabled.
+ */
+public final class Counter {
+    private final String name;
+    private final String help;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public void inc() {
+        if (Metrics.isEnabled()) value.increment();
+    }
+
+    public String getName() { return name; }
+    public String getHelp() { return help; }
+    public long get() { return value.sum(); }
+}
@@ -0,0 +1,166 @@
+package com.wairesd.discordbm.velocity.metrics;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import org.slf4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide metrics registry for the proxy bridge.
+ * <p>
+ * Metrics are off unless {@code metrics.enabled} is set; while off, every instrumentation point
+ * costs a single volatile read. The registry can be exported as Prometheus text over a local HTTP
+ * port and through JMX.
+ */
+public final class Metrics {
+    private static final List<Counter> counters = new CopyOnWriteArrayList<>();
+    private static final List<Timer> timers = new CopyOnWriteArrayList<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private static volatile boolean enabled;
+    private static PrometheusExporter prometheusExporter;
+    private static boolean jmxRegistered;
+
+    public static final Counter SLASH_COMMANDS = counter("discordbm_slash_commands_total", "Slash command interactions received");
+    public static final Counter REQUESTS_FORWARDED = counter("discordbm_requests_forwarded_total", "Requests written to a backend");
+    public static final Counter REQUESTS_REJECTED = counter("discordbm_requests_rejected_total", "Requests rejected because the backend was not writable");
+    public static final Counter REQUESTS_EXPIRED = counter("discordbm_requests_expired_total", "Requests that timed out waiting for a backend");
+    public static final Counter REQUESTS_FAILED = counter("discordbm_requests_failed_total", "Requests failed because their backend disconnected");
+    public static final Counter REQUESTS_COALESCED = counter("discordbm_requests_coalesced_total", "Requests answered by an identical request already in flight");
+    public static final Counter RESPONSES = counter("discordbm_responses_total", "Backend responses delivered to Discord");
+    public static final Counter RESPONSES_UNMATCHED = counter("discordbm_responses_unmatched_total", "Backend responses with no pending request");
+    public static final Counter REGISTRATIONS = counter("discordbm_registrations_total", "Successful backend registrations");
+    public static final Counter AUTH_FAILURES = counter("discordbm_auth_failures_total", "Registrations rejected for an invalid secret");
+    public static final Counter BLOCKED_CONNECTIONS = counter("discordbm_blocked_connections_total", "Connections rejected from blocked IPs");
+    public static final Counter RATE_LIMITED_CONNECTIONS = counter("discordbm_rate_limited_connections_total", "Connections rejected by the per-IP rate limit");
+    public static final Counter RESPONSE_CACHE_HITS = counter("discordbm_response_cache_hits_total", "Commands answered from the response cache");
+    public static final Counter RESPONSE_CACHE_MISSES = counter("discordbm_response_cache_misses_total", "Cacheable commands forwarded to a backend");
+
+    public static final Timer RESPONSE_LATENCY = timer("discordbm_response_latency_seconds", "Time from forwarding a request to receiving its response");
+    public static final Timer DB_WRITES = timer("discordbm_db_write_seconds", "Duration of batched IP block commits");
+
+    private Metrics() {}
+
+    /**
+     * A value sampled at export time.
+     */
+    public record Gauge(String name, String help, LongSupplier value) {}
+
+    public static Counter counter(String name, String help) {
+        Counter counter = new Counter(name, help);
+        counters.add(counter);
+        return counter;
+    }
+
+    public static Timer timer(String name, String help) {
+        Timer timer = new Timer(name, help);
+        timers.add(timer);
+        return timer;
+    }
+
+    public static void gauge(String name, String help, LongSupplier value) {
+        gauges.put(name, new Gauge(name, help, value));
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Returns the current time for a later {@link Timer#recordSince(long)}, or 0 while metrics are disabled. */
+    public static long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Applies the metrics settings, starting the configured exporters. Safe to call again on reload.
+     */
+    public static synchronized void configure(Logger logger) {
+        enabled = Settings.isMetricsEnabled();
+        if (!enabled) {
+            stopPrometheus();
+            return;
+        }
+
+        int port = Settings.getMetricsPrometheusPort();
+        if (prometheusExporter != null && prometheusExporter.getPort() != port) {
+            stopPrometheus();
+        }
+        if (prometheusExporter == null && port > 0) {
+            try {
+                prometheusExporter = PrometheusExporter.start(Settings.getMetricsPrometheusHost(), port);
+                logger.info("Prometheus metrics available on http://{}:{}/metrics", Settings.getMetricsPrometheusHost(), port);
+            } catch (Exception e) {
+                logger.error("Failed to start Prometheus metrics endpoint on port {}: {}", port, e.getMessage());
+            }
+        }
+
+        if (Settings.isMetricsJmxEnabled() && !jmxRegistered) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Jmx(), new ObjectName("com.wairesd.discordbm:type=Metrics"));
+                jmxRegistered = true;
+            } catch (Exception e) {
+                logger.error("Failed to register metrics MBean: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void stopPrometheus() {
+        if (prometheusExporter != null) {
+            prometheusExporter.stop();
+            prometheusExporter = null;
+        }
+    }
+
+    static List<Counter> getCounters() { return counters; }
+    static List<Timer> getTimers() { return timers; }
+    static Map<String, Gauge> getGauges() { return gauges; }
+
+    private static final class Jmx implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> values = new TreeMap<>();
+            counters.forEach(counter -> values.put(counter.getName(), counter.get()));
+            return values;
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            Map<String, Long> values = new TreeMap<>();
+            gauges.values().forEach(gauge -> values.put(gauge.name(), gauge.value().getAsLong()));
+            return values;
+        }
+
+        @Override
+        public Map<String, Double> getLatencyP50Millis() {
+            return percentiles(timer -> timer.getHistogram().getPercentileMillis(50));
+        }
+
+        @Override
+        public Map<String, Double> getLatencyP99Millis() {
+            return percentiles(timer -> timer.getHistogram().getPercentileMillis(99));
+        }
+
+        @Override
+        public Map<String, Double> getLatencyP999Millis() {
+            return percentiles(timer -> timer.getHistogram().getPercentileMillis(99.9));
+        }
+
+        private static Map<String, Double> percentiles(Function<Timer, Double> percentile) {
+            Map<String, Double> values = new TreeMap<>();
+            timers.forEach(timer -> values.put(timer.getName(), percentile.apply(timer)));
+            return values;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.wairesd.discordbm.velocity.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics registry, registered as {@code com.wairesd.discordbm:type=Metrics}.
+ */
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    Map<String, Double> getLatencyP50Millis();
+
+    Map<String, Double> getLatencyP99Millis();
+
+    Map<String, Double> getLatencyP999Millis();
+}
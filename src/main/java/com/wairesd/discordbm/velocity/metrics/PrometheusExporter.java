@@ -0,0 +1,89 @@
+package com.wairesd.discordbm.velocity.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.wairesd.discordbm.velocity.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the metrics registry in the Prometheus text exposition format at {@code /metrics}.
+ */
+final class PrometheusExporter {
+    private static final double[] BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final HttpServer server;
+
+    private PrometheusExporter(HttpServer server) {
+        this.server = server;
+    }
+
+    static PrometheusExporter start(String host, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", PrometheusExporter::handle);
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "DiscordBMV-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        return new PrometheusExporter(server);
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static String render() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Counter counter : Metrics.getCounters()) {
+            header(sb, counter.getName(), counter.getHelp(), "counter");
+            sb.append(counter.getName()).append(' ').append(counter.get()).append('\n');
+        }
+        for (Metrics.Gauge gauge : Metrics.getGauges().values()) {
+            header(sb, gauge.name(), gauge.help(), "gauge");
+            sb.append(gauge.name()).append(' ').append(gauge.value().getAsLong()).append('\n');
+        }
+        for (Timer timer : Metrics.getTimers()) {
+            LatencyHistogram histogram = timer.getHistogram();
+            String name = timer.getName();
+            header(sb, name, timer.getHelp(), "histogram");
+            long count = histogram.getCount();
+            for (double bound : BUCKETS_MILLIS) {
+                sb.append(name).append("_bucket{le=\"").append(format(bound / 1000)).append("\"} ")
+                        .append(Math.min(count, histogram.getCountAtOrBelowMillis(bound))).append('\n');
+            }
+            sb.append(name).append("_bucket{le=\"+Inf\"} ").append(count).append('\n');
+            sb.append(name).append("_sum ").append(format(histogram.getSumSeconds())).append('\n');
+            sb.append(name).append("_count ").append(count).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String help, String type) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+}
@@ -0,0 +1,31 @@
+package com.wairesd.discordbm.velocity.metrics;
+
+import com.wairesd.discordbm.velocity.util.LatencyHistogram;
+
+/**
+ * Latency histogram metric. Pair {@link Metrics#startTimer()} with {@link #recordSince(long)} so that
+ * no clock is read while metrics are disabled.
+ */
+public final class Timer {
+    private final String name;
+    private final String help;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    Timer(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public void record(long nanos) {
+        if (Metrics.isEnabled()) histogram.recordNanos(nanos);
+    }
+
+    /** Records the time elapsed since a value returned by {@link Metrics#startTimer()}. */
+    public void recordSince(long startNanos) {
+        if (startNanos != 0) histogram.recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public String getName() { return name; }
+    public String getHelp() { return help; }
+    public LatencyHistogram getHistogram() { return histogram; }
+}
@@ -0,0 +1,6 @@
+package com.wairesd.discordbm.velocity.model;
+
+// Marks a command as read-only: the proxy answers repeats from its response cache for ttl seconds (0 = no caching)
+// and lets identical concurrent requests share one round trip. scope is "global", "user" or "guild": whose
+// invocations share a response.
+public record CacheDefinition(int ttl, String scope) {}
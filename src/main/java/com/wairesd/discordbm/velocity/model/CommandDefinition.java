@@ -3,4 +3,7 @@ package com.wairesd.discordbm.velocity.model;
 import java.util.List;
 
 // Represents a command definition with name, description, and options.
-public record CommandDefinition(String name, String description, String context, List<OptionDefinition> options) {}
\ No newline at end of file
+// routing is the optional policy for picking a server when several register the command (null = configured default).
+// cache optionally marks the command's responses as cacheable (null = never cached).
+public record CommandDefinition(String name, String description, String context, List<OptionDefinition> options, String routing,
+                                CacheDefinition cache) {}
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.wairesd.discordbm.velocity.model;
+
+// Asks the proxy to drop the cached responses of one of the sender's commands, or all of them if command is null.
+public record InvalidateMessage(String type, String command) {}
@@ -0,0 +1,4 @@
+package com.wairesd.discordbm.velocity.model;
+
+// Represents a heartbeat sent to a client. The timestamp is echoed back in the pong.
+public record PingMessage(String type, long timestamp) {}
\ No newline at end of file
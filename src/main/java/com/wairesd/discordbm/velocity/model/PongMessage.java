@@ -0,0 +1,4 @@
+package com.wairesd.discordbm.velocity.model;
+
+// Represents a client's answer to a heartbeat, echoing the ping timestamp.
+public record PongMessage(String type, long timestamp) {}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.wairesd.discordbm.velocity.model;
+
+// Acknowledges a registration and tells the client which protocol, frame length, compression
+// and heartbeat interval in seconds (0 = off) to switch to. resendCommands means the proxy does not know the
+// client's commandsHash: the other fields are left at their defaults and the client must register again with commands.
+public record RegisterAckMessage(String type, int protocolVersion, int lengthFieldSize, String compression, int heartbeatInterval,
+                                 boolean resendCommands) {}
\ No newline at end of file
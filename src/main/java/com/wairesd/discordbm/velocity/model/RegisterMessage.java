@@ -2,5 +2,10 @@ package com.wairesd.discordbm.velocity.model;
 
 import java.util.List;
 
-// Represents a message to register commands.
-public record RegisterMessage(String type, String serverName, String pluginName, List<CommandDefinition> commands, String secret) {}
\ No newline at end of file
+// Represents a message to register commands. The trailing fields are optional capabilities the client asks for:
+// protocolVersion (0 for legacy JSON-only clients), lengthFieldSize (2 or 4 bytes), compression ("deflate" or null)
+// and heartbeat (answers ping messages with pong). commandsHash is a fingerprint of the client's command set; a client
+// that reconnects may send it without commands to reuse the set the proxy already knows.
+public record RegisterMessage(String type, String serverName, String pluginName, List<CommandDefinition> commands, String secret,
+                              int protocolVersion, int lengthFieldSize, String compression, boolean heartbeat,
+                              String commandsHash) {}
@@ -0,0 +1,4 @@
+package com.wairesd.discordbm.velocity.model;
+
+// Represents one part of a response that was split because it is too large for a single frame.
+public record ResponseChunkMessage(String type, String requestId, int index, int total, String response) {}
\ No newline at end of file
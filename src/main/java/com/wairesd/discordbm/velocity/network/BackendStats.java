@@ -0,0 +1,115 @@
+package com.wairesd.discordbm.velocity.network;
+
+import com.wairesd.discordbm.velocity.util.LatencyHistogram;
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-connection counters attached to a backend channel.
+ */
+public final class BackendStats {
+    private static final AttributeKey<BackendStats> KEY = AttributeKey.valueOf("discordbm.backendStats");
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final AtomicInteger queuedWrites = new AtomicInteger();
+    private final LongAdder rejectedWrites = new LongAdder();
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicLong latencyEwmaBits = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile long heartbeatRttNanos = -1;
+
+    private BackendStats() {}
+
+    /** Returns the stats of a channel, creating them on first use. */
+    public static BackendStats of(Channel channel) {
+        Attribute<BackendStats> attr = channel.attr(KEY);
+        BackendStats stats = attr.get();
+        if (stats == null) {
+            stats = new BackendStats();
+            BackendStats existing = attr.setIfAbsent(stats);
+            if (existing != null) stats = existing;
+        }
+        return stats;
+    }
+
+    /** Reserves a slot in the outbound queue, failing if it already holds {@code maxQueued} writes. */
+    boolean tryQueueWrite(int maxQueued) {
+        while (true) {
+            int queued = queuedWrites.get();
+            if (queued >= maxQueued) {
+                rejectedWrites.increment();
+                return false;
+            }
+            if (queuedWrites.compareAndSet(queued, queued + 1)) return true;
+        }
+    }
+
+    void writeCompleted() {
+        queuedWrites.decrementAndGet();
+    }
+
+    void writeRejected() {
+        rejectedWrites.increment();
+    }
+
+    /** Number of writes handed to the channel that have not been written to the socket yet. */
+    public int getQueuedWrites() {
+        return queuedWrites.get();
+    }
+
+    public long getRejectedWrites() {
+        return rejectedWrites.sum();
+    }
+
+    /** Called when a request to this backend starts waiting for its response. */
+    public void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    /** Called when a request to this backend stops waiting, whether answered, expired or failed. */
+    public void requestFinished() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /** Records the request-to-response latency of an answered request. */
+    public void recordLatency(long nanos) {
+        latency.recordNanos(nanos);
+        double millis = nanos / 1_000_000.0;
+        while (true) {
+            long bits = latencyEwmaBits.get();
+            double current = Double.longBitsToDouble(bits);
+            double updated = Double.isNaN(current) ? millis : current + EWMA_ALPHA * (millis - current);
+            if (latencyEwmaBits.compareAndSet(bits, Double.doubleToLongBits(updated))) return;
+        }
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    /** Exponentially weighted moving average of response latency in milliseconds, or NaN before the first response. */
+    public double getLatencyEwmaMillis() {
+        return Double.longBitsToDouble(latencyEwmaBits.get());
+    }
+
+    /** Request-to-response latency distribution of this backend. */
+    public LatencyHistogram getLatencyHistogram() {
+        return latency;
+    }
+
+    /** Records the round trip of a heartbeat ping. */
+    public void recordHeartbeat(long nanos) {
+        heartbeatRttNanos = nanos;
+    }
+
+    /** Round trip of the last heartbeat in milliseconds, or NaN if the client does not use heartbeats. */
+    public double getHeartbeatRttMillis() {
+        long nanos = heartbeatRttNanos;
+        return nanos < 0 ? Double.NaN : nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,104 @@
+package com.wairesd.discordbm.velocity.network;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.network.codec.BinaryMessageDecoder;
+import com.wairesd.discordbm.velocity.network.codec.BinaryMessageEncoder;
+import com.wairesd.discordbm.velocity.network.codec.FrameCompressionCodec;
+import com.wairesd.discordbm.velocity.network.codec.JsonMessageDecoder;
+import com.wairesd.discordbm.velocity.network.codec.JsonMessageEncoder;
+import com.wairesd.discordbm.velocity.network.codec.ProtocolDictionary;
+import com.wairesd.discordbm.velocity.network.codec.ResponseChunkAggregator;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds the pipeline for each client connection. Clients start on the JSON text protocol with
+ * 2-byte length frames and may negotiate binary messages, 4-byte frames and compression when registering.
+ * The frame codecs sit at the front so that optional compression can be inserted directly behind them.
+ * Connections rejected by the {@link ConnectionFilter} are closed before any handler is added.
+ */
+public class ChildInitializer extends ChannelInitializer<SocketChannel> {
+    private final NettyServer nettyServer;
+    private final Logger logger;
+    private final DatabaseManager dbManager;
+
+    public ChildInitializer(NettyServer nettyServer, Logger logger, DatabaseManager dbManager) {
+        this.nettyServer = nettyServer;
+        this.logger = logger;
+        this.dbManager = dbManager;
+    }
+
+    @Override
+    protected void initChannel(SocketChannel ch) {
+        if (!nettyServer.getConnectionFilter().accept(ch)) {
+            ch.close();
+            return;
+        }
+        ChannelPipeline pipeline = ch.pipeline();
+        pipeline.addLast("flushConsolidation", new FlushConsolidationHandler(
+                FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true));
+        pipeline.addLast("frameDecoder", new LengthFieldBasedFrameDecoder(65535, 0, 2, 0, 2));
+        pipeline.addLast("frameEncoder", new LengthFieldPrepender(2));
+        pipeline.addLast("messageDecoder", new JsonMessageDecoder(logger));
+        pipeline.addLast("stringEncoder", new StringEncoder(StandardCharsets.UTF_8));
+        pipeline.addLast("messageEncoder", JsonMessageEncoder.INSTANCE);
+        pipeline.addLast("handler", new NettyServerHandler(nettyServer, logger, nettyServer.getJda(), dbManager));
+    }
+
+    /**
+     * Starts reassembling chunked responses. Only authenticated connections get it, so that an unauthenticated
+     * client cannot make the proxy buffer partial responses; until then chunks reach the handler and are dropped.
+     */
+    public static void enableChunkAggregation(ChannelPipeline pipeline) {
+        pipeline.addBefore("handler", "chunkAggregator",
+                new ResponseChunkAggregator(Settings.getNettyMaxResponseSize(), Settings.getNettyMaxBufferedResponseSize()));
+    }
+
+    /**
+     * Switches a registered connection to 4-byte length frames. Must run on the channel's event loop
+     * after the register acknowledgement has been written.
+     */
+    public static void useLargeFrames(ChannelPipeline pipeline) {
+        int maxFrameLength = Settings.getNettyMaxFrameLength();
+        pipeline.replace("frameDecoder", "frameDecoder", new LengthFieldBasedFrameDecoder(maxFrameLength, 0, 4, 0, 4));
+        pipeline.replace("frameEncoder", "frameEncoder", new LengthFieldPrepender(4));
+    }
+
+    /**
+     * Enables per-frame compression on a registered connection. Must run on the channel's event loop
+     * after the register acknowledgement has been written.
+     */
+    public static void enableCompression(ChannelPipeline pipeline) {
+        pipeline.addAfter("frameEncoder", "compression",
+                new FrameCompressionCodec(Settings.getNettyCompressionThreshold(), Settings.getNettyMaxFrameLength()));
+    }
+
+    /**
+     * Starts heartbeats on a registered connection; it is closed once the client stays silent for the heartbeat timeout.
+     */
+    public static void enableHeartbeat(ChannelPipeline pipeline, Logger logger) {
+        int interval = Settings.getNettyHeartbeatInterval();
+        pipeline.addBefore("handler", "idleState", new IdleStateHandler(interval, 0, 0));
+        pipeline.addBefore("handler", "heartbeat", new HeartbeatHandler(logger, interval, Settings.getNettyHeartbeatTimeout()));
+    }
+
+    /**
+     * Switches a registered connection to the binary protocol. Must run on the channel's event loop
+     * after the register acknowledgement has been written.
+     */
+    public static void upgradeToBinary(ChannelPipeline pipeline, ProtocolDictionary dictionary, Logger logger) {
+        pipeline.replace("messageDecoder", "binaryDecoder", new BinaryMessageDecoder(logger));
+        pipeline.replace("stringEncoder", "binaryEncoder", new BinaryMessageEncoder(dictionary));
+        pipeline.remove("messageEncoder");
+    }
+}
@@ -0,0 +1,89 @@
+package com.wairesd.discordbm.velocity.network;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Immutable-after-build binary prefix trie of CIDR ranges, with separate roots for IPv4 and IPv6.
+ * A lookup walks at most 32 or 128 nodes and stops at the first range that covers the address.
+ */
+public final class CidrBlocklist {
+    private final Node ipv4 = new Node();
+    private final Node ipv6 = new Node();
+    private int size;
+
+    private static final class Node {
+        private Node zero;
+        private Node one;
+        private boolean terminal;
+    }
+
+    /**
+     * Adds a range such as {@code 10.0.0.0/8}, {@code 2001:db8::/32} or a single address.
+     * @throws IllegalArgumentException if the range is not a literal address with a valid prefix length
+     */
+    public void add(String cidr) {
+        int slash = cidr.indexOf('/');
+        String host = (slash >= 0 ? cidr.substring(0, slash) : cidr).trim();
+        // Only literals are accepted so that a hostname never triggers a DNS lookup.
+        boolean hex = host.indexOf(':') >= 0;
+        if (host.isEmpty() || !host.chars().allMatch(c -> c == '.' || c == ':' || Character.digit(c, hex ? 16 : 10) >= 0)) {
+            throw new IllegalArgumentException("Not an IP address: " + cidr);
+        }
+        byte[] address;
+        try {
+            address = InetAddress.getByName(host).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not an IP address: " + cidr);
+        }
+        int bits = address.length * 8;
+        int prefix;
+        try {
+            prefix = slash >= 0 ? Integer.parseInt(cidr.substring(slash + 1).trim()) : bits;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid prefix length: " + cidr);
+        }
+        if (prefix < 0 || prefix > bits) {
+            throw new IllegalArgumentException("Invalid prefix length: " + cidr);
+        }
+
+        Node node = address.length == 4 ? ipv4 : ipv6;
+        for (int i = 0; i < prefix && !node.terminal; i++) {
+            if (bit(address, i)) {
+                if (node.one == null) node.one = new Node();
+                node = node.one;
+            } else {
+                if (node.zero == null) node.zero = new Node();
+                node = node.zero;
+            }
+        }
+        if (!node.terminal) {
+            // Ranges below this one are now redundant.
+            node.terminal = true;
+            node.zero = null;
+            node.one = null;
+        }
+        size++;
+    }
+
+    /** Whether an address falls inside any added range. */
+    public boolean contains(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        Node node = address instanceof Inet4Address ? ipv4 : ipv6;
+        for (int i = 0; node != null; i++) {
+            if (node.terminal) return true;
+            if (i == bytes.length * 8) return false;
+            node = bit(bytes, i) ? node.one : node.zero;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static boolean bit(byte[] address, int index) {
+        return (address[index >>> 3] & (0x80 >>> (index & 7))) != 0;
+    }
+}
@@ -0,0 +1,131 @@
+package com.wairesd.discordbm.velocity.network;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
+import io.netty.channel.socket.SocketChannel;
+import org.slf4j.Logger;
+
+import java.net.InetAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides at accept time whether a connection may proceed, before any pipeline handler is created.
+ * A connection is rejected if its address is in a configured CIDR range, is blocked for failed
+ * authentication, or opens connections faster than its per-IP token bucket allows.
+ * <p>
+ * The rate limit is off by default. When enabled, a connection that authenticates gets its token back, so only
+ * connections that never authenticate count against it and many backends behind one address are not throttled.
+ */
+public class ConnectionFilter {
+    private static final int MAX_BUCKETS = 10000;
+
+    private final Logger logger;
+    private final DatabaseManager dbManager;
+    private final ConcurrentHashMap<InetAddress, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private volatile CidrBlocklist blockedRanges = new CidrBlocklist();
+    private volatile double ratePerSecond;
+    private volatile int burst;
+
+    public ConnectionFilter(Logger logger, DatabaseManager dbManager) {
+        this.logger = logger;
+        this.dbManager = dbManager;
+        reload();
+    }
+
+    /** Rebuilds the CIDR trie and rate limits from the settings. */
+    public void reload() {
+        CidrBlocklist ranges = new CidrBlocklist();
+        for (String cidr : Settings.getBlockedRanges()) {
+            try {
+                ranges.add(cidr);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring blocked range '{}': {}", cidr, e.getMessage());
+            }
+        }
+        blockedRanges = ranges;
+        ratePerSecond = Settings.getConnectionRate();
+        burst = Math.max(1, Settings.getConnectionBurst());
+        buckets.clear();
+    }
+
+    /**
+     * Whether a freshly accepted channel may get a pipeline. Runs on the channel's event loop.
+     */
+    public boolean accept(SocketChannel ch) {
+        InetAddress address = ch.remoteAddress().getAddress();
+        if (blockedRanges.contains(address) || dbManager.isBlocked(address.getHostAddress())) {
+            Metrics.BLOCKED_CONNECTIONS.inc();
+            if (Settings.isViewConnectedBannedIp()) {
+                logger.warn("Blocked connection attempt from {}", address.getHostAddress());
+            }
+            return false;
+        }
+        if (ratePerSecond > 0 && !tryAcquire(address)) {
+            Metrics.RATE_LIMITED_CONNECTIONS.inc();
+            if (Settings.isDebugConnections()) {
+                logger.warn("Connection rate limit exceeded by {}", address.getHostAddress());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the token a connection took once it has authenticated.
+     */
+    public void onAuthenticated(InetAddress address) {
+        if (ratePerSecond <= 0) return;
+        TokenBucket bucket = buckets.get(address);
+        if (bucket != null) bucket.release(burst);
+    }
+
+    private boolean tryAcquire(InetAddress address) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(address);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_BUCKETS) evictIdle(now);
+            bucket = buckets.computeIfAbsent(address, a -> new TokenBucket(burst, now));
+        }
+        return bucket.tryAcquire(now, ratePerSecond, burst);
+    }
+
+    // Buckets that have refilled completely behave exactly like new ones, so they can be dropped.
+    private void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> bucket.isFull(now, ratePerSecond, burst));
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int burst, long now) {
+            this.tokens = burst;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryAcquire(long now, double rate, int burst) {
+            refill(now, rate, burst);
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+
+        private synchronized void release(int burst) {
+            tokens = Math.min(burst, tokens + 1);
+        }
+
+        private synchronized boolean isFull(long now, double rate, int burst) {
+            refill(now, rate, burst);
+            return tokens >= burst;
+        }
+
+        private void refill(long now, double rate, int burst) {
+            if (now <= lastRefill) return;
+            double elapsedSeconds = (now - lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+            tokens = Math.min(burst, tokens + elapsedSeconds * rate);
+            lastRefill = now;
+        }
+    }
+}
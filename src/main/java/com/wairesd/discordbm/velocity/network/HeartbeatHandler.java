@@ -0,0 +1,52 @@
+package com.wairesd.discordbm.velocity.network;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.model.PingMessage;
+import com.wairesd.discordbm.velocity.model.PongMessage;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import org.slf4j.Logger;
+
+/**
+ * Keeps heartbeat-capable clients alive and evicts silent ones. Sits behind an IdleStateHandler that
+ * fires reader-idle events every heartbeat interval: each event sends a ping, and once the client has
+ * been silent for the heartbeat timeout the channel is closed. Any inbound message counts as a sign of life.
+ */
+public class HeartbeatHandler extends ChannelInboundHandlerAdapter {
+    private final Logger logger;
+    private final int missedLimit;
+    private int missed;
+
+    public HeartbeatHandler(Logger logger, int interval, int timeout) {
+        this.logger = logger;
+        this.missedLimit = Math.max(1, timeout / Math.max(1, interval));
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        missed = 0;
+        if (msg instanceof PongMessage pong) {
+            BackendStats.of(ctx.channel()).recordHeartbeat(System.nanoTime() - pong.timestamp());
+            return;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (!(evt instanceof IdleStateEvent idle) || idle.state() != IdleState.READER_IDLE) {
+            super.userEventTriggered(ctx, evt);
+            return;
+        }
+        if (++missed >= missedLimit) {
+            if (Settings.isDebugConnections()) {
+                logger.warn("Client {} missed {} heartbeats. Closing connection.", ctx.channel().remoteAddress(), missed);
+            }
+            ctx.close();
+            return;
+        }
+        ctx.writeAndFlush(new PingMessage("ping", System.nanoTime()));
+    }
+}
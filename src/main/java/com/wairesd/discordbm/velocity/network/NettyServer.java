@@ -2,43 +2,58 @@ package com.wairesd.discordbm.velocity.network;
 
 import com.wairesd.discordbm.velocity.config.configurators.Settings;
 import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.discord.CommandRegistry;
+import com.wairesd.discordbm.velocity.discord.CommandSync;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
 import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.model.RequestMessage;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
-import io.netty.handler.codec.LengthFieldPrepender;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
 import org.slf4j.Logger;
 
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages the Netty server for communication with Bukkit servers.
  */
 public class NettyServer {
+    private static final int MAX_COMMAND_SETS = 256;
+
     private final Logger logger;
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
     private Channel serverChannel;
-    private final Map<String, CommandDefinition> commandDefinitions = new HashMap<>();
-    private final Map<String, List<ServerInfo>> commandToServers = new HashMap<>();
+    private final RoutingTable routingTable = new RoutingTable();
     private final Map<Channel, String> channelToServerName = new ConcurrentHashMap<>();
+    // Command sets by server and the fingerprint it sent, so a reconnecting backend can skip resending them.
+    // The fingerprint is computed by the backend, so one server's hash never resolves to another server's set.
+    private final Map<CommandSetKey, List<CommandDefinition>> commandSets = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CommandSetKey, List<CommandDefinition>> eldest) {
+                    return size() > MAX_COMMAND_SETS;
+                }
+            });
     private volatile Object jda;
-    private final int port = Settings.getNettyPort();
+    private volatile CommandSync commandSync;
+    private volatile CommandRegistry commandRegistry;
     private final DatabaseManager dbManager;
+    private final ConnectionFilter connectionFilter;
 
     public NettyServer(Logger logger, DatabaseManager dbManager) {
         this.logger = logger;
         this.dbManager = dbManager;
+        this.connectionFilter = new ConnectionFilter(logger, dbManager);
     }
 
     /**
@@ -46,55 +61,101 @@ public class NettyServer {
      */
     public void setJda(Object jda) { this.jda = jda; }
 
-    public Map<String, List<ServerInfo>> getCommandToServers() { return commandToServers; }
+    public Object getJda() { return jda; }
+
+    public ConnectionFilter getConnectionFilter() { return connectionFilter; }
+
+    /**
+     * Sets the stage that publishes newly registered commands to Discord.
+     */
+    public void setCommandSync(CommandSync commandSync) { this.commandSync = commandSync; }
+
+    /**
+     * Sets the registry that is refreshed whenever the servers behind a command change.
+     */
+    public void setCommandRegistry(CommandRegistry commandRegistry) { this.commandRegistry = commandRegistry; }
+
+    public Map<String, RoutingTable.Route> getRoutes() { return routingTable.routes(); }
+
+    /**
+     * Returns the route of a command, or null if no server ever registered it.
+     */
+    public RoutingTable.Route getRoute(String command) { return routingTable.get(command); }
 
     public List<ServerInfo> getServersForCommand(String command) {
-        return commandToServers.getOrDefault(command, new ArrayList<>());
+        RoutingTable.Route route = routingTable.get(command);
+        return route != null ? route.servers() : List.of();
     }
 
-    public Map<String, CommandDefinition> getCommandDefinitions() { return commandDefinitions; }
-
     /**
      * Represents server information with a name and channel.
      */
-    public record ServerInfo(String serverName, Channel channel) {}
-
-    /**
-     * Starts the Netty server to listen for incoming connections.
-     */
-    public void start() {
-        bossGroup = new NioEventLoopGroup(1);
-        workerGroup = new NioEventLoopGroup();
-        try {
-            ServerBootstrap bootstrap = new ServerBootstrap();
-            bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .childHandler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel ch) {
-                            ch.pipeline().addLast("frameDecoder", new LengthFieldBasedFrameDecoder(65535, 0, 2, 0, 2));
-                            ch.pipeline().addLast("stringDecoder", new StringDecoder(StandardCharsets.UTF_8));
-                            ch.pipeline().addLast("frameEncoder", new LengthFieldPrepender(2));
-                            ch.pipeline().addLast("stringEncoder", new StringEncoder(StandardCharsets.UTF_8));
-                            ch.pipeline().addLast("handler", new NettyServerHandler(NettyServer.this, logger, jda, dbManager));
-                        }
-                    })
-                    .option(ChannelOption.SO_BACKLOG, 128)
-                    .childOption(ChannelOption.SO_KEEPALIVE, true);
-
-            ChannelFuture future = bootstrap.bind(port).sync();
+    public record ServerInfo(String serverName, Channel channel) {
+        public BackendStats stats() { return BackendStats.of(channel); }
+    }
+
+    /**
+     * Returns every connected server that has registered, one entry per channel.
+     */
+    public List<ServerInfo> getServers() {
+        List<ServerInfo> servers = new ArrayList<>(channelToServerName.size());
+        channelToServerName.forEach((channel, name) -> servers.add(new ServerInfo(name, channel)));
+        return servers;
+    }
+
+    /**
+     * Starts the Netty server to listen for incoming connections. Does not block.
+     * @return a future completed once the server is bound, or failed if binding failed
+     */
+    public CompletableFuture<Void> start() {
+        int port = Settings.getNettyPort();
+        NettyTransport transport = NettyTransport.resolve(Settings.getNettyTransport(), logger);
+        bossGroup = new MultiThreadIoEventLoopGroup(Settings.getNettyBossThreads(), transport.ioHandlerFactory());
+        workerGroup = new MultiThreadIoEventLoopGroup(Settings.getNettyWorkerThreads(), transport.ioHandlerFactory());
+        ByteBufAllocator allocator = createAllocator();
+        CompletableFuture<Void> bound = new CompletableFuture<>();
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.group(bossGroup, workerGroup)
+                .channel(transport.serverChannelClass())
+                .childHandler(new ChildInitializer(this, logger, dbManager))
+                .option(ChannelOption.SO_BACKLOG, 128)
+                .option(ChannelOption.ALLOCATOR, allocator)
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.TCP_NODELAY, Settings.isNettyTcpNoDelay())
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                        Settings.getNettyWriteBufferLowWaterMark(), Settings.getNettyWriteBufferHighWaterMark()))
+                .childOption(ChannelOption.ALLOCATOR, allocator);
+
+        bootstrap.bind(port).addListener((ChannelFuture future) -> {
+            if (!future.isSuccess()) {
+                logger.error("Failed to bind Netty server on port {}: {}", port, future.cause().getMessage());
+                shutdown();
+                bound.completeExceptionally(future.cause());
+                return;
+            }
             serverChannel = future.channel();
+            serverChannel.closeFuture().addListener(f -> shutdown());
             if (Settings.isDebugConnections()) {
-                logger.info("Netty server started on port {}", port);
-            }
-            serverChannel.closeFuture().sync();
-        } catch (InterruptedException e) {
-            if (Settings.isDebugErrors()) {
-                logger.error("Netty server interrupted", e);
+                logger.info("Netty server started on port {} using {} transport", port, transport);
             }
-            Thread.currentThread().interrupt();
-        } finally {
-            shutdown();
+            bound.complete(null);
+        });
+        return bound;
+    }
+
+    private ByteBufAllocator createAllocator() {
+        boolean preferDirect = Settings.isNettyPreferDirect();
+        String allocator = Settings.getNettyAllocator().toLowerCase();
+        switch (allocator) {
+            case "pooled":
+                return new PooledByteBufAllocator(preferDirect);
+            case "unpooled":
+                return new UnpooledByteBufAllocator(preferDirect);
+            default:
+                if (Settings.isDebugErrors()) {
+                    logger.warn("Unknown netty allocator '{}'. Defaulting to 'pooled'.", allocator);
+                }
+                return new PooledByteBufAllocator(preferDirect);
         }
     }
 
@@ -110,74 +171,88 @@ public class NettyServer {
     }
 
     /**
-     * Sends a message to the specified channel.
+     * Waits for the event loops to stop after {@link #shutdown()}, so that no handler runs any more.
+     * Must not be called on an event loop.
+     */
+    public void awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (workerGroup != null) workerGroup.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (bossGroup != null) bossGroup.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns whether a channel can take another request right now: it is active, below its
+     * write-buffer high water mark and its outbound queue is not full.
+     */
+    public boolean isAcceptingRequests(Channel channel) {
+        return channel != null && channel.isActive() && channel.isWritable()
+                && BackendStats.of(channel).getQueuedWrites() < Settings.getNettyMaxQueuedWrites();
+    }
+
+    /**
+     * Sends a request to the specified channel, encoded with the protocol the client negotiated.
+     * Flushes are consolidated per event-loop tick by the pipeline.
+     * @return false if the request was rejected because the channel is inactive or backed up
      */
-    public void sendMessage(Channel channel, String message) {
-        if (channel != null && channel.isActive()) {
-            channel.writeAndFlush(message);
+    public boolean sendRequest(Channel channel, RequestMessage request) {
+        if (channel == null || !channel.isActive()) return false;
+        BackendStats stats = BackendStats.of(channel);
+        if (!channel.isWritable()) {
+            stats.writeRejected();
+            Metrics.REQUESTS_REJECTED.inc();
+            return false;
+        }
+        if (!stats.tryQueueWrite(Settings.getNettyMaxQueuedWrites())) {
+            Metrics.REQUESTS_REJECTED.inc();
+            return false;
         }
+        channel.writeAndFlush(request).addListener(future -> stats.writeCompleted());
+        Metrics.REQUESTS_FORWARDED.inc();
+        return true;
     }
 
     /**
      * Registers commands for a server and associates them with a channel.
      */
     public void registerCommands(String serverName, List<CommandDefinition> commands, Channel channel) {
+        ServerInfo server = new ServerInfo(serverName, channel);
         for (var cmd : commands) {
-            if (commandDefinitions.containsKey(cmd.name())) {
-                CommandDefinition existing = commandDefinitions.get(cmd.name());
-                if (!existing.equals(cmd)) {
-                    if (Settings.isDebugErrors()) {
-                        logger.error("Command {} from server {} has different definition", cmd.name(), serverName);
-                    }
-                    continue;
-                }
-            } else {
-                commandDefinitions.put(cmd.name(), cmd);
-                if (jda != null) {
-                    var cmdData = net.dv8tion.jda.api.interactions.commands.build.Commands.slash(cmd.name(), cmd.description());
-                    for (var opt : cmd.options()) {
-                        cmdData.addOption(
-                                net.dv8tion.jda.api.interactions.commands.OptionType.valueOf(opt.type()),
-                                opt.name(),
-                                opt.description(),
-                                opt.required()
-                        );
-                    }
-                    switch (cmd.context()) {
-                        case "both":
-                            cmdData.setGuildOnly(false);
-                            break;
-                        case "dm":
-                            cmdData.setGuildOnly(false);
-                            break;
-                        case "server":
-                            cmdData.setGuildOnly(true);
-                            break;
-                        default:
-                            if (Settings.isDebugErrors()) {
-                                logger.warn("Unknown context '{}' for command '{}'. Defaulting to 'both'.", cmd.context(), cmd.name());
-                            }
-                            cmdData.setGuildOnly(false);
-                            break;
-                    }
-                    ((net.dv8tion.jda.api.JDA) jda).upsertCommand(cmdData).queue();
-                    if (Settings.isDebugCommandRegistrations()) {
-                        logger.info("Registered command: {} with context: {}", cmd.name(), cmd.context());
-                    }
+            RoutingTable.Registration registration = routingTable.add(cmd, server);
+            if (registration == RoutingTable.Registration.CONFLICT) {
+                if (Settings.isDebugErrors()) {
+                    logger.error("Command {} from server {} has different definition", cmd.name(), serverName);
                 }
+                continue;
+            }
+            if (registration == RoutingTable.Registration.NEW && commandSync != null) {
+                commandSync.requestSync();
             }
-            commandToServers.computeIfAbsent(cmd.name(), k -> new ArrayList<>())
-                    .add(new ServerInfo(serverName, channel));
+            if (commandRegistry != null) commandRegistry.refresh(cmd.name());
         }
     }
 
+    /**
+     * Remembers the command set a backend registered under its fingerprint.
+     */
+    public void rememberCommandSet(String serverName, String hash, List<CommandDefinition> commands) {
+        commandSets.put(new CommandSetKey(serverName, hash), List.copyOf(commands));
+    }
+
+    /**
+     * Returns the command set a server registered under a fingerprint, or null if it is unknown.
+     */
+    public List<CommandDefinition> getCommandSet(String serverName, String hash) {
+        return commandSets.get(new CommandSetKey(serverName, hash));
+    }
+
+    private record CommandSetKey(String serverName, String hash) {}
+
     /**
      * Removes a server from the command mappings when its channel closes.
      */
     public void removeServer(Channel channel) {
-        for (var entry : commandToServers.entrySet()) {
-            entry.getValue().removeIf(serverInfo -> serverInfo.channel() == channel);
-        }
+        List<String> commands = routingTable.removeChannel(channel);
+        if (commandRegistry != null) commandRegistry.refresh(commands);
         channelToServerName.remove(channel);
     }
 
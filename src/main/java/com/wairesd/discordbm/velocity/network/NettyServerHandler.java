@@ -1,28 +1,36 @@
 package com.wairesd.discordbm.velocity.network;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonObject;
 import com.wairesd.discordbm.velocity.config.configurators.Settings;
 import com.wairesd.discordbm.velocity.database.DatabaseManager;
 import com.wairesd.discordbm.velocity.discord.ResponseHandler;
+import com.wairesd.discordbm.velocity.metrics.Metrics;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.model.InvalidateMessage;
+import com.wairesd.discordbm.velocity.model.RegisterAckMessage;
 import com.wairesd.discordbm.velocity.model.RegisterMessage;
 import com.wairesd.discordbm.velocity.model.ResponseMessage;
+import com.wairesd.discordbm.velocity.network.codec.BinaryProtocol;
+import com.wairesd.discordbm.velocity.network.codec.ProtocolDictionary;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
 import org.slf4j.Logger;
 
 import java.net.InetSocketAddress;
+import java.util.List;
 
 /**
  * Handles incoming messages and events for the Netty server.
  */
-public class NettyServerHandler extends SimpleChannelInboundHandler<String> {
+public class NettyServerHandler extends SimpleChannelInboundHandler<Object> {
     private final Gson gson = new Gson();
     private final Logger logger;
     private final Object jda;
     private final DatabaseManager dbManager;
     private final NettyServer nettyServer;
     private boolean authenticated = false;
+    private boolean negotiated = false;
 
     public NettyServerHandler(NettyServer nettyServer, Logger logger, Object jda, DatabaseManager dbManager) {
         this.nettyServer = nettyServer;
@@ -40,47 +48,33 @@ public class NettyServerHandler extends SimpleChannelInboundHandler<String> {
         if (Settings.isDebugConnections()) {
             logger.info("Client connected: {}", ctx.channel().remoteAddress());
         }
-        dbManager.isBlocked(ip).thenAcceptAsync(isBlocked -> {
-            if (isBlocked) {
-                if (Settings.isViewConnectedBannedIp()) {
-                    logger.warn("Blocked connection attempt from {}", ip);
+        ctx.executor().schedule(() -> {
+            if (!authenticated) {
+                if (Settings.isDebugAuthentication()) {
+                    logger.warn("Client {} did not authenticate in time. Closing connection.", ip);
                 }
-                ctx.writeAndFlush("Error: IP blocked due to multiple failed attempts");
+                ctx.writeAndFlush("Error: Authentication timeout");
+                dbManager.incrementFailedAttempt(ip);
                 ctx.close();
-            } else {
-                ctx.executor().schedule(() -> {
-                    if (!authenticated) {
-                        if (Settings.isDebugAuthentication()) {
-                            logger.warn("Client {} did not authenticate in time. Closing connection.", ip);
-                        }
-                        ctx.writeAndFlush("Error: Authentication timeout");
-                        dbManager.incrementFailedAttempt(ip);
-                        ctx.close();
-                    }
-                }, 30, java.util.concurrent.TimeUnit.SECONDS);
             }
-        }, ctx.executor());
+        }, 30, java.util.concurrent.TimeUnit.SECONDS);
     }
 
     /**
      * Processes incoming messages from clients.
      */
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String msg) {
-        if (Settings.isDebugClientResponses()) {
-            logger.info("Received message from client: {}", msg);
-        }
-
-        JsonObject json = gson.fromJson(msg, JsonObject.class);
-        RegisterMessage regMsg = gson.fromJson(json, RegisterMessage.class);
-
-        if ("register".equals(regMsg.type())) {
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof RegisterMessage regMsg) {
             InetSocketAddress remoteAddress = (InetSocketAddress) ctx.channel().remoteAddress();
             String ip = remoteAddress.getAddress().getHostAddress();
             int port = remoteAddress.getPort();
             handleRegister(ctx, regMsg, ip, port);
-        } else if ("response".equals(regMsg.type())) {
-            handleResponse(json);
+        } else if (msg instanceof ResponseMessage respMsg) {
+            handleResponse(respMsg);
+        } else if (msg instanceof InvalidateMessage invalidateMsg) {
+            if (!authenticated) return;
+            ResponseHandler.handleInvalidate(nettyServer.getServerName(ctx.channel()), invalidateMsg.command());
         }
     }
 
@@ -89,6 +83,7 @@ public class NettyServerHandler extends SimpleChannelInboundHandler<String> {
             if (Settings.isDebugAuthentication()) {
                 logger.warn("Invalid secret from {}:{}: {}", ip, port, regMsg.secret());
             }
+            Metrics.AUTH_FAILURES.inc();
             ctx.writeAndFlush("Error: Invalid secret code");
             dbManager.incrementFailedAttempt(ip);
             ctx.close();
@@ -97,24 +92,76 @@ public class NettyServerHandler extends SimpleChannelInboundHandler<String> {
 
         if (!authenticated) {
             authenticated = true;
+            nettyServer.getConnectionFilter().onAuthenticated(((InetSocketAddress) ctx.channel().remoteAddress()).getAddress());
+            ChildInitializer.enableChunkAggregation(ctx.pipeline());
+            Metrics.REGISTRATIONS.inc();
             dbManager.resetAttempts(ip);
             if (Settings.isDebugAuthentication()) {
                 logger.info("Client {} IP - {} Port - {} authenticated successfully", regMsg.serverName(), ip, port);
             }
         }
 
-        if (regMsg.commands() != null && !regMsg.commands().isEmpty()) {
+        List<CommandDefinition> commands = regMsg.commands();
+        String commandsHash = regMsg.commandsHash();
+        if (commandsHash != null) {
+            if (commands == null || commands.isEmpty()) {
+                commands = nettyServer.getCommandSet(regMsg.serverName(), commandsHash);
+                if (commands == null) {
+                    if (Settings.isDebugPluginConnections()) {
+                        logger.info("Unknown command set {} from server {}, asking for the full list", commandsHash, regMsg.serverName());
+                    }
+                    ctx.writeAndFlush(gson.toJson(new RegisterAckMessage("register_ack", 1, 2, null, 0, true)));
+                    return;
+                }
+            } else {
+                nettyServer.rememberCommandSet(regMsg.serverName(), commandsHash, commands);
+            }
+        }
+
+        if (commands != null && !commands.isEmpty()) {
             if (Settings.isDebugPluginConnections()) {
                 logger.info("Plugin {} connected to server {}", regMsg.pluginName(), regMsg.serverName());
             }
             nettyServer.setServerName(ctx.channel(), regMsg.serverName());
-            nettyServer.registerCommands(regMsg.serverName(), regMsg.commands(), ctx.channel());
+            nettyServer.registerCommands(regMsg.serverName(), commands, ctx.channel());
+        }
+
+        negotiate(ctx, regMsg, commands);
+    }
+
+    /**
+     * Acknowledges the optional capabilities a client asked for and reconfigures the pipeline to match.
+     * Legacy clients that ask for nothing get no acknowledgement; a client that sent a commands hash always gets one,
+     * so it knows the proxy accepted the hash. Capabilities are fixed after the first registration.
+     */
+    private void negotiate(ChannelHandlerContext ctx, RegisterMessage regMsg, List<CommandDefinition> commands) {
+        if (negotiated) return;
+        boolean binary = regMsg.protocolVersion() >= BinaryProtocol.VERSION;
+        boolean largeFrames = regMsg.lengthFieldSize() == 4;
+        String compression = "deflate".equalsIgnoreCase(regMsg.compression()) ? "deflate" : null;
+        boolean heartbeat = regMsg.heartbeat() && Settings.getNettyHeartbeatInterval() > 0;
+        if (!binary && !largeFrames && compression == null && !heartbeat && regMsg.commandsHash() == null) return;
+        negotiated = true;
+
+        int protocolVersion = binary ? BinaryProtocol.VERSION : 1;
+        int lengthFieldSize = largeFrames ? 4 : 2;
+        int heartbeatInterval = heartbeat ? Settings.getNettyHeartbeatInterval() : 0;
+        ctx.writeAndFlush(gson.toJson(new RegisterAckMessage("register_ack", protocolVersion, lengthFieldSize, compression, heartbeatInterval, false)));
+
+        ChannelPipeline pipeline = ctx.pipeline();
+        if (largeFrames) ChildInitializer.useLargeFrames(pipeline);
+        if (compression != null) ChildInitializer.enableCompression(pipeline);
+        if (binary) ChildInitializer.upgradeToBinary(pipeline, ProtocolDictionary.of(commands), logger);
+        if (heartbeat) ChildInitializer.enableHeartbeat(pipeline, logger);
+        if (Settings.isDebugConnections()) {
+            logger.info("Client {} negotiated protocol v{}, {}-byte frames, compression {}, heartbeat {}",
+                    regMsg.serverName(), protocolVersion, lengthFieldSize, compression != null ? compression : "off",
+                    heartbeat ? heartbeatInterval + "s" : "off");
         }
     }
 
-    private void handleResponse(JsonObject json) {
+    private void handleResponse(ResponseMessage respMsg) {
         if (!authenticated) return;
-        ResponseMessage respMsg = gson.fromJson(json, ResponseMessage.class);
         ResponseHandler.handleResponse(respMsg.requestId(), respMsg.response());
     }
 
@@ -125,6 +172,7 @@ public class NettyServerHandler extends SimpleChannelInboundHandler<String> {
     public void channelInactive(ChannelHandlerContext ctx) {
         String serverName = nettyServer.getServerName(ctx.channel());
         nettyServer.removeServer(ctx.channel());
+        ResponseHandler.handleDisconnect(ctx.channel());
         if (Settings.isDebugConnections()) {
             if (serverName != null) {
                 logger.info("Connection closed: {} ({})", serverName, ctx.channel().remoteAddress());
@@ -0,0 +1,75 @@
+package com.wairesd.discordbm.velocity.network;
+
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import org.slf4j.Logger;
+
+/**
+ * Netty transports the server can run on. Native transports fall back to NIO when unavailable.
+ */
+public enum NettyTransport {
+    EPOLL("epoll"),
+    IO_URING("io_uring"),
+    NIO("nio");
+
+    private final String configName;
+
+    NettyTransport(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * Resolves the configured transport name ("auto", "epoll", "io_uring" or "nio") to one that is usable on this host.
+     */
+    public static NettyTransport resolve(String name, Logger logger) {
+        String value = name == null ? "auto" : name.toLowerCase();
+        switch (value) {
+            case "epoll":
+                if (Epoll.isAvailable()) return EPOLL;
+                logger.warn("Epoll transport requested but unavailable ({}), falling back to NIO",
+                        Epoll.unavailabilityCause().getMessage());
+                return NIO;
+            case "io_uring":
+                if (IoUring.isAvailable()) return IO_URING;
+                logger.warn("io_uring transport requested but unavailable ({}), falling back to NIO",
+                        IoUring.unavailabilityCause().getMessage());
+                return NIO;
+            case "nio":
+                return NIO;
+            case "auto":
+                return Epoll.isAvailable() ? EPOLL : NIO;
+            default:
+                logger.warn("Unknown netty transport '{}'. Defaulting to 'auto'.", name);
+                return Epoll.isAvailable() ? EPOLL : NIO;
+        }
+    }
+
+    public IoHandlerFactory ioHandlerFactory() {
+        return switch (this) {
+            case EPOLL -> EpollIoHandler.newFactory();
+            case IO_URING -> IoUringIoHandler.newFactory();
+            case NIO -> NioIoHandler.newFactory();
+        };
+    }
+
+    public Class<? extends ServerChannel> serverChannelClass() {
+        return switch (this) {
+            case EPOLL -> EpollServerSocketChannel.class;
+            case IO_URING -> IoUringServerSocketChannel.class;
+            case NIO -> NioServerSocketChannel.class;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return configName;
+    }
+}
@@ -0,0 +1,39 @@
+package com.wairesd.discordbm.velocity.network;
+
+/**
+ * How a request is routed when several servers registered the same command.
+ */
+public enum RoutingPolicy {
+    /** Ask the user to pick a server from a select menu. */
+    SELECT("select"),
+    /** Rotate through the servers. */
+    ROUND_ROBIN("round-robin"),
+    /** Pick the server with the fewest requests in flight. */
+    LEAST_PENDING("least-pending"),
+    /** Pick the server with the lowest recent response latency. */
+    LOWEST_LATENCY("lowest-latency"),
+    /** Reuse the server the user last chose for this command, asking only the first time. */
+    STICKY("sticky");
+
+    private final String configName;
+
+    RoutingPolicy(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * Parses a policy name, returning null for null or unknown names.
+     */
+    public static RoutingPolicy fromString(String name) {
+        if (name == null) return null;
+        for (RoutingPolicy policy : values()) {
+            if (policy.configName.equalsIgnoreCase(name)) return policy;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return configName;
+    }
+}
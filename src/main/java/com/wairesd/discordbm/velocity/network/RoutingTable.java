@@ -0,0 +1,109 @@
+package com.wairesd.discordbm.velocity.network;
+
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import io.netty.channel.Channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps commands to the servers that registered them.
+ * <p>
+ * Each command has an immutable {@link Route} that is replaced atomically on change, so readers on JDA
+ * threads never lock and always see a definition together with a consistent server list. A reverse index
+ * from channel to command names keeps registration and removal proportional to that server's own commands.
+ */
+public final class RoutingTable {
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Channel, List<String>> commandsByChannel = new ConcurrentHashMap<>();
+
+    /**
+     * Immutable routing entry: the agreed definition of a command and the servers currently serving it.
+     */
+    public record Route(CommandDefinition definition, List<NettyServer.ServerInfo> servers) {
+        private Route withServer(NettyServer.ServerInfo server) {
+            for (var existing : servers) {
+                if (existing.channel() == server.channel()) return this;
+            }
+            List<NettyServer.ServerInfo> updated = new ArrayList<>(servers.size() + 1);
+            updated.addAll(servers);
+            updated.add(server);
+            return new Route(definition, List.copyOf(updated));
+        }
+
+        private Route withoutChannel(Channel channel) {
+            List<NettyServer.ServerInfo> updated = new ArrayList<>(servers.size());
+            for (var existing : servers) {
+                if (existing.channel() != channel) updated.add(existing);
+            }
+            return updated.size() == servers.size() ? this : new Route(definition, List.copyOf(updated));
+        }
+    }
+
+    /**
+     * Outcome of adding a server to a command's route.
+     */
+    public enum Registration {
+        /** The command was not known before; its definition was stored. */
+        NEW,
+        /** The definition matched the known one and the server was added. */
+        ADDED,
+        /** The server sent a definition that differs from the known one; nothing changed. */
+        CONFLICT
+    }
+
+    public Route get(String command) {
+        return routes.get(command);
+    }
+
+    /**
+     * Returns an unmodifiable live view of every route.
+     */
+    public Map<String, Route> routes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * Adds a server to the route of a command, storing the definition if the command is new.
+     */
+    public Registration add(CommandDefinition definition, NettyServer.ServerInfo server) {
+        Registration[] result = new Registration[1];
+        routes.compute(definition.name(), (name, route) -> {
+            if (route == null) {
+                result[0] = Registration.NEW;
+                return new Route(definition, List.of(server));
+            }
+            if (!route.definition().equals(definition)) {
+                result[0] = Registration.CONFLICT;
+                return route;
+            }
+            result[0] = Registration.ADDED;
+            return route.withServer(server);
+        });
+        if (result[0] != Registration.CONFLICT) {
+            commandsByChannel.compute(server.channel(), (channel, names) -> {
+                if (names != null && names.contains(definition.name())) return names;
+                List<String> updated = names == null ? new ArrayList<>() : new ArrayList<>(names);
+                updated.add(definition.name());
+                return List.copyOf(updated);
+            });
+        }
+        return result[0];
+    }
+
+    /**
+     * Removes a channel from every route it was added to. Definitions are kept for later reconnects.
+     * @return the names of the commands whose routes changed
+     */
+    public List<String> removeChannel(Channel channel) {
+        List<String> names = commandsByChannel.remove(channel);
+        if (names == null) return List.of();
+        for (String name : names) {
+            routes.computeIfPresent(name, (n, route) -> route.withoutChannel(channel));
+        }
+        return names;
+    }
+}
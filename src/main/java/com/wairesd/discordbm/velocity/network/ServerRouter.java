@@ -0,0 +1,108 @@
+package com.wairesd.discordbm.velocity.network;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the server for a command registered by several servers, according to its {@link RoutingPolicy}.
+ */
+public class ServerRouter {
+    private static final int MAX_STICKY_ENTRIES = 10_000;
+
+    private final Map<String, AtomicInteger> roundRobinCounters = new ConcurrentHashMap<>();
+    private final Map<String, String> stickyChoices = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_STICKY_ENTRIES;
+                }
+            });
+
+    /**
+     * Resolves the policy of a command: a per-command override in settings.yml, then the policy
+     * the backend declared, then the configured default.
+     */
+    public static RoutingPolicy policyOf(CommandDefinition definition) {
+        RoutingPolicy policy = RoutingPolicy.fromString(Settings.getRoutingOverride(definition.name()));
+        if (policy == null) policy = RoutingPolicy.fromString(definition.routing());
+        if (policy == null) policy = RoutingPolicy.fromString(Settings.getDefaultRouting());
+        return policy != null ? policy : RoutingPolicy.SELECT;
+    }
+
+    /**
+     * Chooses a server for a user's request.
+     * @return the server, or null if the user has to pick one from a select menu
+     */
+    public NettyServer.ServerInfo choose(CommandDefinition definition, String userId, List<NettyServer.ServerInfo> servers) {
+        RoutingPolicy policy = policyOf(definition);
+        if (policy == RoutingPolicy.SELECT) return null;
+        if (policy == RoutingPolicy.STICKY) {
+            String serverName = stickyChoices.get(stickyKey(definition.name(), userId));
+            if (serverName == null) return null;
+            for (var server : servers) {
+                if (server.serverName().equals(serverName)) return server;
+            }
+            return null;
+        }
+
+        List<NettyServer.ServerInfo> candidates = writable(servers);
+        switch (policy) {
+            case ROUND_ROBIN: {
+                int next = roundRobinCounters.computeIfAbsent(definition.name(), k -> new AtomicInteger()).getAndIncrement();
+                return candidates.get(Math.floorMod(next, candidates.size()));
+            }
+            case LEAST_PENDING: {
+                NettyServer.ServerInfo best = candidates.get(0);
+                for (var server : candidates) {
+                    if (server.stats().getInFlightRequests() < best.stats().getInFlightRequests()) best = server;
+                }
+                return best;
+            }
+            case LOWEST_LATENCY: {
+                NettyServer.ServerInfo best = candidates.get(0);
+                for (var server : candidates) {
+                    if (latencyOf(server) < latencyOf(best)) best = server;
+                }
+                return best;
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Remembers the server a user picked from the select menu, for commands using the sticky policy.
+     */
+    public void remember(CommandDefinition definition, String userId, String serverName) {
+        if (policyOf(definition) == RoutingPolicy.STICKY) {
+            stickyChoices.put(stickyKey(definition.name(), userId), serverName);
+        }
+    }
+
+    private static String stickyKey(String command, String userId) {
+        return userId + ':' + command;
+    }
+
+    // Servers that never answered yet fall back to their heartbeat round trip, or count as fastest so they get sampled.
+    private static double latencyOf(NettyServer.ServerInfo server) {
+        double latency = server.stats().getLatencyEwmaMillis();
+        if (Double.isNaN(latency)) latency = server.stats().getHeartbeatRttMillis();
+        return Double.isNaN(latency) ? 0 : latency;
+    }
+
+    private static List<NettyServer.ServerInfo> writable(List<NettyServer.ServerInfo> servers) {
+        List<NettyServer.ServerInfo> writable = new ArrayList<>(servers.size());
+        for (var server : servers) {
+            if (server.channel().isWritable()) writable.add(server);
+        }
+        return writable.isEmpty() ? servers : writable;
+    }
+}
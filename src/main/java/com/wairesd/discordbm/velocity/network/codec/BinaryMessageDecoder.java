@@ -0,0 +1,66 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import com.wairesd.discordbm.velocity.model.InvalidateMessage;
+import com.wairesd.discordbm.velocity.model.PongMessage;
+import com.wairesd.discordbm.velocity.model.ResponseChunkMessage;
+import com.wairesd.discordbm.velocity.model.ResponseMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import org.slf4j.Logger;
+
+import java.util.List;
+
+/**
+ * Decodes binary frames from clients into message records. Text frames carry JSON
+ * and are read with {@link JsonMessageReader}.
+ */
+public class BinaryMessageDecoder extends MessageToMessageDecoder<ByteBuf> {
+    private final Logger logger;
+
+    public BinaryMessageDecoder(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        byte tag = msg.readByte();
+        Object message;
+        switch (tag) {
+            case BinaryProtocol.TAG_TEXT:
+                String json = BinaryProtocol.readString(msg);
+                if (Settings.isDebugClientResponses()) {
+                    logger.info("Received message from client: {}", json);
+                }
+                message = JsonMessageReader.read(json);
+                break;
+            case BinaryProtocol.TAG_RESPONSE:
+                String requestId = BinaryProtocol.readUuid(msg).toString();
+                message = new ResponseMessage("response", requestId, BinaryProtocol.readString(msg));
+                if (Settings.isDebugClientResponses()) {
+                    logger.info("Received message from client: {}", message);
+                }
+                break;
+            case BinaryProtocol.TAG_RESPONSE_CHUNK:
+                String chunkRequestId = BinaryProtocol.readUuid(msg).toString();
+                int index = BinaryProtocol.readVarInt(msg);
+                int total = BinaryProtocol.readVarInt(msg);
+                message = new ResponseChunkMessage("response_chunk", chunkRequestId, index, total, BinaryProtocol.readString(msg));
+                break;
+            case BinaryProtocol.TAG_PONG:
+                message = new PongMessage("pong", msg.readLong());
+                break;
+            case BinaryProtocol.TAG_INVALIDATE:
+                String command = BinaryProtocol.readString(msg);
+                message = new InvalidateMessage("invalidate", command.isEmpty() ? null : command);
+                break;
+            default:
+                throw new CorruptedFrameException("Unknown frame tag " + tag);
+        }
+        if (message != null) {
+            out.add(message);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.google.gson.Gson;
+import com.wairesd.discordbm.velocity.model.PingMessage;
+import com.wairesd.discordbm.velocity.model.RequestMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes outbound messages for clients that negotiated the binary protocol.
+ * Requests for commands outside the dictionary are sent as JSON text frames.
+ */
+public class BinaryMessageEncoder extends MessageToByteEncoder<Object> {
+    private static final Gson gson = new Gson();
+    private final ProtocolDictionary dictionary;
+
+    public BinaryMessageEncoder(ProtocolDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public boolean acceptOutboundMessage(Object msg) {
+        return msg instanceof String || msg instanceof RequestMessage || msg instanceof PingMessage;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) {
+        if (msg instanceof PingMessage ping) {
+            out.writeByte(BinaryProtocol.TAG_PING);
+            out.writeLong(ping.timestamp());
+            return;
+        }
+        if (msg instanceof RequestMessage request) {
+            int commandId = dictionary.commandId(request.command());
+            if (commandId >= 0) {
+                encodeRequest(request, commandId, out);
+                return;
+            }
+            msg = gson.toJson(request);
+        }
+        out.writeByte(BinaryProtocol.TAG_TEXT);
+        BinaryProtocol.writeString(out, (String) msg);
+    }
+
+    private void encodeRequest(RequestMessage request, int commandId, ByteBuf out) {
+        out.writeByte(BinaryProtocol.TAG_REQUEST);
+        BinaryProtocol.writeUuid(out, UUID.fromString(request.requestId()));
+        BinaryProtocol.writeVarInt(out, commandId);
+        Map<String, String> options = request.options();
+        BinaryProtocol.writeVarInt(out, options != null ? options.size() : 0);
+        if (options == null) return;
+        for (var option : options.entrySet()) {
+            int optionId = dictionary.optionId(option.getKey());
+            if (optionId >= 0) {
+                BinaryProtocol.writeVarInt(out, optionId + 1);
+            } else {
+                BinaryProtocol.writeVarInt(out, 0);
+                BinaryProtocol.writeString(out, option.getKey());
+            }
+            BinaryProtocol.writeString(out, option.getValue());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Constants and primitives of the compact binary protocol (version 2).
+ * <p>
+ * Every frame starts with a one-byte type tag. Lengths and dictionary ids are unsigned varints,
+ * strings are a varint byte length followed by UTF-8, and request ids are two big-endian longs.
+ * <ul>
+ *   <li>{@link #TAG_TEXT}: string - any JSON or plain-text message</li>
+ *   <li>{@link #TAG_REQUEST}: request id, command id, option count, then per option an option key
+ *       (0 = inline name string follows, n = dictionary option n - 1) and a value string</li>
+ *   <li>{@link #TAG_RESPONSE}: request id, response string</li>
+ *   <li>{@link #TAG_RESPONSE_CHUNK}: request id, chunk index, chunk count, response part string</li>
+ *   <li>{@link #TAG_PING} / {@link #TAG_PONG}: timestamp as a long, echoed back by the pong</li>
+ *   <li>{@link #TAG_INVALIDATE}: command name string, empty to invalidate every command of the sender</li>
+ * </ul>
+ */
+public final class BinaryProtocol {
+    public static final int VERSION = 2;
+
+    public static final byte TAG_TEXT = 0;
+    public static final byte TAG_REQUEST = 1;
+    public static final byte TAG_RESPONSE = 2;
+    public static final byte TAG_RESPONSE_CHUNK = 3;
+    public static final byte TAG_PING = 4;
+    public static final byte TAG_PONG = 5;
+    public static final byte TAG_INVALIDATE = 6;
+
+    private BinaryProtocol() {}
+
+    public static void writeVarInt(ByteBuf buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    public static int readVarInt(ByteBuf buf) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new CorruptedFrameException("VarInt too long");
+    }
+
+    public static void writeString(ByteBuf buf, String value) {
+        writeVarInt(buf, ByteBufUtil.utf8Bytes(value));
+        ByteBufUtil.writeUtf8(buf, value);
+    }
+
+    public static String readString(ByteBuf buf) {
+        int length = readVarInt(buf);
+        if (length < 0 || length > buf.readableBytes()) {
+            throw new CorruptedFrameException("String length " + length + " exceeds frame");
+        }
+        String value = buf.toString(buf.readerIndex(), length, StandardCharsets.UTF_8);
+        buf.skipBytes(length);
+        return value;
+    }
+
+    public static void writeUuid(ByteBuf buf, UUID uuid) {
+        buf.writeLong(uuid.getMostSignificantBits());
+        buf.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    public static UUID readUuid(ByteBuf buf) {
+        return new UUID(buf.readLong(), buf.readLong());
+    }
+}
@@ -0,0 +1,100 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Optional per-frame deflate compression, enabled once a client negotiates it at registration.
+ * <p>
+ * Each frame body starts with a flag byte: {@link #RAW} followed by the original payload, or
+ * {@link #DEFLATE} followed by the uncompressed length as a varint and the deflate stream.
+ * Only frames of at least {@code threshold} bytes are compressed.
+ */
+public class FrameCompressionCodec extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+    public static final byte RAW = 0;
+    public static final byte DEFLATE = 1;
+
+    private final int threshold;
+    private final int maxFrameLength;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+
+    public FrameCompressionCodec(int threshold, int maxFrameLength) {
+        this.threshold = threshold;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        int length = msg.readableBytes();
+        if (length < threshold) {
+            ByteBuf header = ctx.alloc().buffer(1).writeByte(RAW);
+            out.add(ctx.alloc().compositeBuffer(2).addComponents(true, header, msg.retain()));
+            return;
+        }
+
+        ByteBuf compressed = ctx.alloc().heapBuffer(length / 2 + 16);
+        compressed.writeByte(DEFLATE);
+        BinaryProtocol.writeVarInt(compressed, length);
+        deflater.reset();
+        deflater.setInput(msg.nioBuffer());
+        deflater.finish();
+        while (!deflater.finished()) {
+            compressed.ensureWritable(4096);
+            ByteBuffer target = compressed.nioBuffer(compressed.writerIndex(), compressed.writableBytes());
+            compressed.writerIndex(compressed.writerIndex() + deflater.deflate(target));
+        }
+        out.add(compressed);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws DataFormatException {
+        byte flag = msg.readByte();
+        if (flag == RAW) {
+            out.add(msg.retain());
+            return;
+        }
+        if (flag != DEFLATE) {
+            throw new CorruptedFrameException("Unknown compression flag " + flag);
+        }
+
+        int length = BinaryProtocol.readVarInt(msg);
+        if (length < 0 || length > maxFrameLength) {
+            throw new TooLongFrameException("Decompressed frame of " + length + " bytes exceeds " + maxFrameLength);
+        }
+        ByteBuf result = ctx.alloc().heapBuffer(length, length);
+        try {
+            inflater.reset();
+            inflater.setInput(msg.nioBuffer());
+            ByteBuffer target = result.nioBuffer(0, length);
+            while (target.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(target) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new CorruptedFrameException("Truncated deflate frame");
+                }
+            }
+            if (target.hasRemaining() || !inflater.finished()) {
+                throw new CorruptedFrameException("Deflate frame does not match its declared length " + length);
+            }
+            result.writerIndex(length);
+            out.add(result);
+        } catch (DataFormatException | RuntimeException e) {
+            result.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        deflater.end();
+        inflater.end();
+    }
+}
@@ -0,0 +1,33 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.wairesd.discordbm.velocity.config.configurators.Settings;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Decodes JSON text frames straight into message records using {@link JsonMessageReader}.
+ */
+public class JsonMessageDecoder extends MessageToMessageDecoder<ByteBuf> {
+    private final Logger logger;
+
+    public JsonMessageDecoder(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        String json = msg.toString(StandardCharsets.UTF_8);
+        if (Settings.isDebugClientResponses()) {
+            logger.info("Received message from client: {}", json);
+        }
+        Object message = JsonMessageReader.read(json);
+        if (message != null) {
+            out.add(message);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.google.gson.Gson;
+import com.wairesd.discordbm.velocity.model.PingMessage;
+import com.wairesd.discordbm.velocity.model.RequestMessage;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
+
+/**
+ * Serializes outbound message records to JSON for clients still on the text protocol.
+ */
+@ChannelHandler.Sharable
+public class JsonMessageEncoder extends MessageToMessageEncoder<Object> {
+    public static final JsonMessageEncoder INSTANCE = new JsonMessageEncoder();
+    private static final Gson gson = new Gson();
+
+    @Override
+    public boolean acceptOutboundMessage(Object msg) {
+        return msg instanceof RequestMessage || msg instanceof PingMessage;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) {
+        out.add(gson.toJson(msg));
+    }
+}
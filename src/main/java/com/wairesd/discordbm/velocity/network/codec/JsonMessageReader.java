@@ -0,0 +1,102 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.model.InvalidateMessage;
+import com.wairesd.discordbm.velocity.model.PongMessage;
+import com.wairesd.discordbm.velocity.model.RegisterMessage;
+import com.wairesd.discordbm.velocity.model.ResponseChunkMessage;
+import com.wairesd.discordbm.velocity.model.ResponseMessage;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Reads inbound JSON messages in a single streaming pass, without building a JSON tree.
+ * Fields of every known message type are collected as they appear and the target record is
+ * built once the {@code type} is known, so field order does not matter.
+ */
+public final class JsonMessageReader {
+    private static final TypeAdapter<List<CommandDefinition>> commandsAdapter =
+            new Gson().getAdapter(new TypeToken<List<CommandDefinition>>() {});
+
+    private JsonMessageReader() {}
+
+    /**
+     * Parses a message, returning a {@link RegisterMessage}, a {@link ResponseMessage}, a {@link ResponseChunkMessage},
+     * a {@link PongMessage}, an {@link InvalidateMessage} or null if the type is missing or unknown.
+     */
+    public static Object read(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return read(reader);
+        }
+    }
+
+    public static Object read(JsonReader reader) throws IOException {
+        String type = null;
+        String serverName = null;
+        String pluginName = null;
+        List<CommandDefinition> commands = null;
+        String secret = null;
+        int protocolVersion = 0;
+        int lengthFieldSize = 0;
+        String compression = null;
+        boolean heartbeat = false;
+        String requestId = null;
+        String response = null;
+        int index = 0;
+        int total = 0;
+        long timestamp = 0;
+        String commandsHash = null;
+        String command = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type" -> type = nextString(reader);
+                case "serverName" -> serverName = nextString(reader);
+                case "pluginName" -> pluginName = nextString(reader);
+                case "commands" -> commands = commandsAdapter.read(reader);
+                case "secret" -> secret = nextString(reader);
+                case "protocolVersion" -> protocolVersion = reader.nextInt();
+                case "lengthFieldSize" -> lengthFieldSize = reader.nextInt();
+                case "compression" -> compression = nextString(reader);
+                case "heartbeat" -> heartbeat = reader.nextBoolean();
+                case "requestId" -> requestId = nextString(reader);
+                case "response" -> response = nextString(reader);
+                case "index" -> index = reader.nextInt();
+                case "total" -> total = reader.nextInt();
+                case "timestamp" -> timestamp = reader.nextLong();
+                case "commandsHash" -> commandsHash = nextString(reader);
+                case "command" -> command = nextString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (type == null) return null;
+        return switch (type) {
+            case "register" -> new RegisterMessage(type, serverName, pluginName, commands, secret,
+                    protocolVersion, lengthFieldSize, compression, heartbeat, commandsHash);
+            case "response" -> new ResponseMessage(type, requestId, response);
+            case "response_chunk" -> new ResponseChunkMessage(type, requestId, index, total, response);
+            case "pong" -> new PongMessage(type, timestamp);
+            // As in the binary protocol, an empty command means all of them.
+            case "invalidate" -> new InvalidateMessage(type, command != null && !command.isEmpty() ? command : null);
+            default -> null;
+        };
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.model.OptionDefinition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command and option name dictionary shared by both ends of a binary connection.
+ * <p>
+ * It is derived from the commands sent in the register message, so nothing extra goes over the wire:
+ * command ids follow the order of the command list and option ids follow the order in which option
+ * names first appear while walking that list. Duplicate names keep their first id.
+ */
+public final class ProtocolDictionary {
+    private final Map<String, Integer> commandIds = new HashMap<>();
+    private final Map<String, Integer> optionIds = new HashMap<>();
+    private final List<String> optionNames = new ArrayList<>();
+
+    private ProtocolDictionary() {}
+
+    public static ProtocolDictionary of(List<CommandDefinition> commands) {
+        ProtocolDictionary dictionary = new ProtocolDictionary();
+        if (commands == null) return dictionary;
+        for (CommandDefinition cmd : commands) {
+            dictionary.commandIds.putIfAbsent(cmd.name(), dictionary.commandIds.size());
+            if (cmd.options() == null) continue;
+            for (OptionDefinition opt : cmd.options()) {
+                if (dictionary.optionIds.putIfAbsent(opt.name(), dictionary.optionNames.size()) == null) {
+                    dictionary.optionNames.add(opt.name());
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    /** Returns the id of a command, or -1 if the client did not register it. */
+    public int commandId(String command) {
+        return commandIds.getOrDefault(command, -1);
+    }
+
+    /** Returns the id of an option name, or -1 if it is not in the dictionary. */
+    public int optionId(String option) {
+        return optionIds.getOrDefault(option, -1);
+    }
+
+    public String optionName(int id) {
+        return optionNames.get(id);
+    }
+}
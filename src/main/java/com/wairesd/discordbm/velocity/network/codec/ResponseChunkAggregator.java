@@ -0,0 +1,101 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.wairesd.discordbm.velocity.model.ResponseChunkMessage;
+import com.wairesd.discordbm.velocity.model.ResponseMessage;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reassembles {@link ResponseChunkMessage}s into a single {@link ResponseMessage} once every chunk
+ * of a request has arrived. Chunks may arrive in any order; other messages pass through untouched.
+ * Installed only once a client has authenticated, and bounded both per response and in total per connection.
+ */
+public class ResponseChunkAggregator extends MessageToMessageDecoder<ResponseChunkMessage> {
+    private static final int MAX_PENDING_RESPONSES = 64;
+    private static final int MAX_CHUNKS = 4096;
+
+    private final int maxResponseSize;
+    private final int maxBufferedSize;
+    private final Map<String, PartialResponse> pending = new HashMap<>();
+    private long bufferedSize;
+
+    public ResponseChunkAggregator(int maxResponseSize, int maxBufferedSize) {
+        this.maxResponseSize = maxResponseSize;
+        this.maxBufferedSize = maxBufferedSize;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ResponseChunkMessage chunk, List<Object> out) {
+        if (chunk.requestId() == null || chunk.response() == null
+                || chunk.total() <= 0 || chunk.total() > MAX_CHUNKS || chunk.index() < 0 || chunk.index() >= chunk.total()) {
+            throw new CorruptedFrameException("Invalid response chunk " + chunk.index() + "/" + chunk.total());
+        }
+
+        PartialResponse partial = pending.get(chunk.requestId());
+        if (partial == null) {
+            if (pending.size() >= MAX_PENDING_RESPONSES) {
+                throw new TooLongFrameException("Too many chunked responses in progress");
+            }
+            partial = new PartialResponse(chunk.total());
+            pending.put(chunk.requestId(), partial);
+        } else if (partial.parts.length != chunk.total()) {
+            discard(chunk.requestId());
+            throw new CorruptedFrameException("Chunk count changed for request " + chunk.requestId());
+        }
+
+        int delta = chunk.response().length();
+        if (partial.parts[chunk.index()] == null) {
+            partial.received++;
+        } else {
+            delta -= partial.parts[chunk.index()].length();
+        }
+        partial.parts[chunk.index()] = chunk.response();
+        partial.size += delta;
+        bufferedSize += delta;
+        if (partial.size > maxResponseSize) {
+            discard(chunk.requestId());
+            throw new TooLongFrameException("Chunked response for " + chunk.requestId() + " exceeds " + maxResponseSize + " characters");
+        }
+        if (bufferedSize > maxBufferedSize) {
+            discard(chunk.requestId());
+            throw new TooLongFrameException("Chunked responses in progress exceed " + maxBufferedSize + " characters");
+        }
+
+        if (partial.received == partial.parts.length) {
+            discard(chunk.requestId());
+            StringBuilder response = new StringBuilder(partial.size);
+            for (String part : partial.parts) {
+                response.append(part);
+            }
+            out.add(new ResponseMessage("response", chunk.requestId(), response.toString()));
+        }
+    }
+
+    private void discard(String requestId) {
+        PartialResponse partial = pending.remove(requestId);
+        if (partial != null) bufferedSize -= partial.size;
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        pending.clear();
+        bufferedSize = 0;
+        super.channelInactive(ctx);
+    }
+
+    private static final class PartialResponse {
+        private final String[] parts;
+        private int received;
+        private int size;
+
+        private PartialResponse(int total) {
+            this.parts = new String[total];
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.wairesd.discordbm.velocity.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets over microseconds, in the spirit of HdrHistogram.
+ * Values below 16 microseconds are exact; above that every power of two is split into 8 buckets, so recorded
+ * values are kept within 12.5% of their true value. Values beyond about 19 hours land in the last bucket.
+ */
+public final class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKETS = 8;
+    private static final int MAX_EXPONENT = 36;
+    // The extra last bucket collects every value of 2^MAX_EXPONENT microseconds and above.
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - 4) * SUB_BUCKETS + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucketOf(micros));
+        total.increment();
+        sumMicros.add(micros);
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    /** Sum of all recorded values in seconds. */
+    public double getSumSeconds() {
+        return sumMicros.sum() / 1_000_000.0;
+    }
+
+    /**
+     * Returns the value at a percentile (0-100) in milliseconds, or NaN if nothing was recorded.
+     */
+    public double getPercentileMillis(double percentile) {
+        long count = total.sum();
+        if (count == 0) return Double.NaN;
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return valueOf(i) / 1000.0;
+        }
+        return valueOf(BUCKETS - 1) / 1000.0;
+    }
+
+    /**
+     * Returns how many recorded values are at or below a bound in milliseconds, for cumulative exports.
+     */
+    public long getCountAtOrBelowMillis(double boundMillis) {
+        long bound = (long) (boundMillis * 1000);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && lowerBoundOf(i) <= bound; i++) {
+            seen += counts.get(i);
+        }
+        return seen;
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (micros >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exponent - 3);
+    }
+
+    // Midpoint of the bucket, in microseconds.
+    private static long valueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) return bucket;
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        return lowerBoundOf(bucket) + (1L << (exponent - 4));
+    }
+}
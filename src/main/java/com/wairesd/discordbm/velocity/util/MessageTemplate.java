@@ -0,0 +1,82 @@
+package com.wairesd.discordbm.velocity.util;
+
+import net.kyori.adventure.text.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message compiled once into literal text and {@code {name}} placeholders, so formatting is a single pass
+ * over the segments. Messages without placeholders keep their parsed {@link Component}.
+ */
+public final class MessageTemplate {
+    private final String source;
+    // Alternates literal text (even indexes) and placeholder names (odd indexes).
+    private final String[] segments;
+    private final int literalLength;
+    private final Component component;
+
+    private MessageTemplate(String source, String[] segments) {
+        this.source = source;
+        this.segments = segments;
+        int length = 0;
+        for (int i = 0; i < segments.length; i += 2) length += segments[i].length();
+        this.literalLength = length;
+        this.component = segments.length == 1 ? Color.parse(source) : null;
+    }
+
+    /**
+     * Splits a message at its placeholders. A '{' without a closing '}' is kept as text.
+     */
+    public static MessageTemplate compile(String source) {
+        List<String> segments = new ArrayList<>();
+        int literalStart = 0;
+        int open = source.indexOf('{');
+        while (open >= 0) {
+            int close = source.indexOf('}', open + 1);
+            if (close < 0) break;
+            segments.add(source.substring(literalStart, open));
+            segments.add(source.substring(open + 1, close));
+            literalStart = close + 1;
+            open = source.indexOf('{', literalStart);
+        }
+        segments.add(source.substring(literalStart));
+        return new MessageTemplate(source, segments.toArray(String[]::new));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean hasPlaceholders() {
+        return segments.length > 1;
+    }
+
+    /**
+     * Substitutes the placeholders. Placeholders without a value are left as written.
+     */
+    public String format(Map<String, String> values) {
+        if (segments.length == 1) return source;
+        StringBuilder builder = new StringBuilder(literalLength + 16 * (segments.length / 2));
+        for (int i = 0; i < segments.length; i++) {
+            if ((i & 1) == 0) {
+                builder.append(segments[i]);
+            } else {
+                String value = values.get(segments[i]);
+                if (value != null) builder.append(value);
+                else builder.append('{').append(segments[i]).append('}');
+            }
+        }
+        return builder.toString();
+    }
+
+    /** The colored message; cached when it has no placeholders. */
+    public Component toComponent() {
+        return component != null ? component : Color.parse(source);
+    }
+
+    public Component toComponent(Map<String, String> values) {
+        return component != null ? component : Color.parse(format(values));
+    }
+}
@@ -0,0 +1,158 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import com.wairesd.discordbm.velocity.database.DatabaseManager;
+import com.wairesd.discordbm.velocity.model.CommandDefinition;
+import com.wairesd.discordbm.velocity.network.NettyServer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandSyncTest {
+    private static final Logger logger = LoggerFactory.getLogger(CommandSyncTest.class);
+
+    private NettyServer nettyServer;
+    private CommandSync commandSync;
+    private FakeClient discord;
+
+    @BeforeEach
+    void setUp() {
+        nettyServer = new NettyServer(logger, new DatabaseManager("jdbc:sqlite::memory:"));
+        commandSync = new CommandSync(nettyServer, logger);
+        discord = new FakeClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commandSync.shutdown();
+    }
+
+    @Test
+    void keepsCommandsOfBackendsThatHaveNotReconnectedAfterARestart() throws Exception {
+        discord.commands.put("balance", command("balance"));
+        discord.commands.put("stats", command("stats"));
+
+        commandSync.setClient(discord);
+        commandSync.syncNow();
+
+        assertEquals(List.of("balance", "stats"), List.copyOf(discord.commands.keySet()));
+        assertEquals(0, discord.deletes);
+        assertEquals(0, discord.bulkUpdates);
+    }
+
+    @Test
+    void leavesUnchangedCommandsAloneWhenBackendsReconnect() throws Exception {
+        discord.commands.put("balance", command("balance"));
+        discord.commands.put("stats", command("stats"));
+        commandSync.setClient(discord);
+        commandSync.syncNow();
+
+        nettyServer.registerCommands("lobby", List.of(command("balance"), command("stats")), new EmbeddedChannel());
+        commandSync.syncNow();
+
+        assertEquals(List.of("balance", "stats"), List.copyOf(discord.commands.keySet()));
+        assertEquals(0, discord.upserts);
+        assertEquals(0, discord.deletes);
+        assertEquals(0, discord.bulkUpdates);
+    }
+
+    @Test
+    void neverBulkUpdatesWhileDiscordHasCommandsNoBackendRegisteredYet() throws Exception {
+        discord.commands.put("balance", command("balance"));
+        commandSync.setClient(discord);
+
+        List<CommandDefinition> registered = registerManyCommands();
+        commandSync.syncNow();
+
+        assertTrue(discord.commands.containsKey("balance"));
+        registered.forEach(definition -> assertTrue(discord.commands.containsKey(definition.name())));
+        assertEquals(0, discord.bulkUpdates);
+        assertEquals(0, discord.deletes);
+    }
+
+    @Test
+    void neverBulkUpdatesWhileDiscordHasOtherCommands() throws Exception {
+        discord.otherCommands = true;
+        commandSync.setClient(discord);
+
+        registerManyCommands();
+        commandSync.syncNow();
+
+        assertEquals(0, discord.bulkUpdates);
+        assertEquals(6, discord.upserts);
+    }
+
+    @Test
+    void bulkUpdatesManyChangesToCommandsItManages() throws Exception {
+        commandSync.setClient(discord);
+
+        List<CommandDefinition> registered = registerManyCommands();
+        commandSync.syncNow();
+
+        assertEquals(1, discord.bulkUpdates);
+        assertEquals(registered.size(), discord.commands.size());
+    }
+
+    private List<CommandDefinition> registerManyCommands() {
+        List<CommandDefinition> registered = IntStream.range(0, 6).mapToObj(i -> command("cmd" + i)).toList();
+        nettyServer.registerCommands("survival", registered, new EmbeddedChannel());
+        return registered;
+    }
+
+    private static CommandDefinition command(String name) {
+        return new CommandDefinition(name, "Test command " + name, "both", List.of(), null, null);
+    }
+
+    // Stands in for Discord's global command list.
+    private static class FakeClient implements CommandSyncClient {
+        final Map<String, CommandDefinition> commands = new LinkedHashMap<>();
+        int upserts;
+        int deletes;
+        int bulkUpdates;
+        volatile boolean otherCommands;
+
+        @Override
+        public boolean hasOtherCommands() {
+            return otherCommands;
+        }
+
+        @Override
+        public synchronized CompletableFuture<List<CommandDefinition>> retrieveCommands() {
+            return CompletableFuture.completedFuture(new ArrayList<>(commands.values()));
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> updateCommands(List<CommandDefinition> updated) {
+            bulkUpdates++;
+            commands.clear();
+            updated.forEach(command -> commands.put(command.name(), command));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> upsertCommand(CommandDefinition command) {
+            upserts++;
+            commands.put(command.name(), command);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> deleteCommand(String name) {
+            deletes++;
+            commands.remove(name);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+    private final ResponseCache cache = new ResponseCache();
+
+    @Test
+    void invalidatesOneCommandOfAServer() {
+        cache.put(key("balance", "survival"), "100");
+        cache.put(key("top", "survival"), "1. Steve");
+        cache.put(key("balance", "lobby"), "5");
+
+        cache.invalidate("survival", "balance");
+
+        assertNull(cache.get(key("balance", "survival")));
+        assertEquals("1. Steve", cache.get(key("top", "survival")));
+        assertEquals("5", cache.get(key("balance", "lobby")));
+    }
+
+    @Test
+    void invalidatesEveryCommandOfAServerWithoutCommand() {
+        cache.put(key("balance", "survival"), "100");
+        cache.put(key("top", "survival"), "1. Steve");
+        cache.put(key("balance", "lobby"), "5");
+
+        cache.invalidate("survival", null);
+
+        assertNull(cache.get(key("balance", "survival")));
+        assertNull(cache.get(key("top", "survival")));
+        assertEquals("5", cache.get(key("balance", "lobby")));
+    }
+
+    private static ResponseCache.Key key(String command, String server) {
+        return new ResponseCache.Key(command, server, "", Map.of(), 60);
+    }
+}
@@ -0,0 +1,54 @@
+package com.wairesd.discordbm.velocity.discord;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoleCacheTest {
+    private final RoleCache cache = new RoleCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void loadsRolesOncePerMember() {
+        assertEquals(Set.of("admin"), roles("guild", "steve"));
+        assertEquals(Set.of("admin"), roles("guild", "steve"));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void reloadsInvalidatedMember() {
+        roles("guild", "steve");
+        roles("guild", "alex");
+
+        cache.invalidateMember("guild", "steve");
+        roles("guild", "steve");
+        roles("guild", "alex");
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void reloadsEveryMemberOfInvalidatedGuild() {
+        roles("guild", "steve");
+        roles("guild", "alex");
+        roles("other", "steve");
+
+        cache.invalidateGuild("guild");
+
+        assertEquals(1, cache.size());
+        roles("guild", "steve");
+        roles("other", "steve");
+        assertEquals(4, loads.get());
+    }
+
+    private Set<String> roles(String guildId, String memberId) {
+        return cache.getRoleIds(guildId, memberId, () -> {
+            loads.incrementAndGet();
+            return Set.of("admin");
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.wairesd.discordbm.velocity.network.codec;
+
+import com.wairesd.discordbm.velocity.model.InvalidateMessage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JsonMessageReaderTest {
+    @Test
+    void readsInvalidateOfOneCommand() throws Exception {
+        Object message = JsonMessageReader.read("{\"type\":\"invalidate\",\"command\":\"balance\"}");
+
+        assertEquals("balance", assertInstanceOf(InvalidateMessage.class, message).command());
+    }
+
+    @Test
+    void readsEmptyInvalidateCommandAsAllCommands() throws Exception {
+        Object message = JsonMessageReader.read("{\"type\":\"invalidate\",\"command\":\"\"}");
+
+        assertNull(assertInstanceOf(InvalidateMessage.class, message).command());
+    }
+
+    @Test
+    void readsMissingInvalidateCommandAsAllCommands() throws Exception {
+        Object message = JsonMessageReader.read("{\"type\":\"invalidate\"}");
+
+        assertNull(assertInstanceOf(InvalidateMessage.class, message).command());
+    }
+}
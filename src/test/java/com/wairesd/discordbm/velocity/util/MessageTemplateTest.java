@@ -0,0 +1,49 @@
+package com.wairesd.discordbm.velocity.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageTemplateTest {
+    @Test
+    void substitutesPlaceholdersInOnePass() {
+        MessageTemplate template = MessageTemplate.compile("&a{user} slapped {target}!");
+
+        assertTrue(template.hasPlaceholders());
+        assertEquals("&aSteve slapped Alex!", template.format(Map.of("user", "Steve", "target", "Alex")));
+    }
+
+    @Test
+    void keepsPlaceholdersWithoutAValue() {
+        MessageTemplate template = MessageTemplate.compile("{user} slapped {target}");
+
+        assertEquals("Steve slapped {target}", template.format(Map.of("user", "Steve")));
+    }
+
+    @Test
+    void doesNotSubstituteIntoSubstitutedValues() {
+        MessageTemplate template = MessageTemplate.compile("{user}: {target}");
+
+        assertEquals("{target}: Alex", template.format(Map.of("user", "{target}", "target", "Alex")));
+    }
+
+    @Test
+    void keepsUnclosedBraceAsText() {
+        MessageTemplate template = MessageTemplate.compile("Hello {user} and {world");
+
+        assertEquals("Hello Steve and {world", template.format(Map.of("user", "Steve")));
+    }
+
+    @Test
+    void cachesComponentOfStaticMessages() {
+        MessageTemplate template = MessageTemplate.compile("&cNo permission.");
+
+        assertFalse(template.hasPlaceholders());
+        assertSame(template.toComponent(), template.toComponent(Map.of()));
+    }
+}